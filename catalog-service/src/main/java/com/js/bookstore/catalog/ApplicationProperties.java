@@ -5,4 +5,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "catalog")
-public record ApplicationProperties(@DefaultValue("10") @Min(1) int pageSize) {}
+public record ApplicationProperties(
+        @DefaultValue("10") @Min(1) int pageSize,
+        @DefaultValue("false") boolean approximateTotalElements,
+        @DefaultValue("false") boolean snapshotEnabled,
+        @DefaultValue("1000") @Min(1) int exportFetchSize,
+        @DefaultValue("5000") @Min(1) int importBatchSize,
+        @DefaultValue("5") @Min(0) int cachedListingPages,
+        @DefaultValue("true") boolean gzipCachedListingPages) {}
@@ -3,10 +3,12 @@ package com.js.bookstore.catalog;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.cache.annotation.EnableCaching;
 
 @SpringBootApplication
 // @EnableConfigurationProperties(ApplicationProperties.class)
 @ConfigurationPropertiesScan
+@EnableCaching
 public class CatalogServiceApplication {
 
     public static void main(String[] args) {
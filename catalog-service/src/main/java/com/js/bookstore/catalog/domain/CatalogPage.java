@@ -0,0 +1,7 @@
+package com.js.bookstore.catalog.domain;
+
+/**
+ * A listing page together with the version of the catalog it was rendered from, so the validators
+ * sent with a page always describe that page's content.
+ */
+public record CatalogPage<T>(CatalogVersion version, T page) {}
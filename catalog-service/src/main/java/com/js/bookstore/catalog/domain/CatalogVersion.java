@@ -0,0 +1,5 @@
+package com.js.bookstore.catalog.domain;
+
+import java.time.Instant;
+
+public record CatalogVersion(long version, Instant lastModified) {}
@@ -0,0 +1,37 @@
+package com.js.bookstore.catalog.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Single-row table maintained by database triggers, bumped on every statement that changes products.
+ */
+@Entity
+@Table(name = "catalog_version")
+@Immutable
+class CatalogVersionEntity {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,5 @@
+package com.js.bookstore.catalog.domain;
+
+import java.util.List;
+
+public record CursorPagedResult<T>(List<T> data, String nextCursor, boolean hasNext) {}
@@ -0,0 +1,12 @@
+package com.js.bookstore.catalog.domain;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public static InvalidCursorException forCursor(String cursor) {
+        return new InvalidCursorException("Invalid cursor: " + cursor);
+    }
+}
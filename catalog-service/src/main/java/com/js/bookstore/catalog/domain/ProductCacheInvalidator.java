@@ -0,0 +1,34 @@
+package com.js.bookstore.catalog.domain;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+class ProductCacheInvalidator {
+    private static final Logger log = LoggerFactory.getLogger(ProductCacheInvalidator.class);
+
+    private final CacheManager cacheManager;
+
+    ProductCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @EventListener
+    void onProductChanged(ProductChangedEvent event) {
+        Cache cache = cacheManager.getCache(ProductService.PRODUCTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (event.affectsAllProducts()) {
+            log.info("Evicting all cached products");
+            cache.clear();
+        } else {
+            log.debug("Evicting cached product for code: {}", event.code());
+            cache.evict(event.code());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.js.bookstore.catalog.domain;
+
+public record ProductChangedEvent(String code) {
+    public static final String ALL_PRODUCTS = "*";
+
+    public static ProductChangedEvent allProducts() {
+        return new ProductChangedEvent(ALL_PRODUCTS);
+    }
+
+    public boolean affectsAllProducts() {
+        return ALL_PRODUCTS.equals(code);
+    }
+}
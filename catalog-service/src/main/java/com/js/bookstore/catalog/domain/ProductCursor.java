@@ -0,0 +1,34 @@
+package com.js.bookstore.catalog.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a product in the (name, id) listing order, encoded as an opaque URL-safe token.
+ */
+record ProductCursor(String name, long id) {
+    private static final char SEPARATOR = ':';
+
+    static ProductCursor of(ProductRow row) {
+        return new ProductCursor(row.getName(), row.getId());
+    }
+
+    String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            if (separatorIndex < 1) {
+                throw InvalidCursorException.forCursor(cursor);
+            }
+            long id = Long.parseLong(raw.substring(0, separatorIndex));
+            return new ProductCursor(raw.substring(separatorIndex + 1), id);
+        } catch (IllegalArgumentException e) {
+            throw InvalidCursorException.forCursor(cursor);
+        }
+    }
+}
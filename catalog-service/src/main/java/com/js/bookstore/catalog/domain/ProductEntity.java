@@ -11,6 +11,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Table(name = "products")
@@ -36,6 +37,12 @@ class ProductEntity {
     @Column(nullable = false)
     private BigDecimal price;
 
+    @Column(insertable = false, updatable = false)
+    private Long version;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Instant updatedAt;
+
     public ProductEntity() {}
 
     public ProductEntity(Long id, String code, String name, String description, String imageUrl, BigDecimal price) {
@@ -94,4 +101,12 @@ class ProductEntity {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
 }
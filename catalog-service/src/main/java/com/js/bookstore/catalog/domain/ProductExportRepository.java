@@ -0,0 +1,7 @@
+package com.js.bookstore.catalog.domain;
+
+import java.util.stream.Stream;
+
+interface ProductExportRepository {
+    Stream<Product> streamAllOrderedById(int fetchSize);
+}
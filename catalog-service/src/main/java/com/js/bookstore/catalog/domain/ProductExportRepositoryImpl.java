@@ -0,0 +1,29 @@
+package com.js.bookstore.catalog.domain;
+
+import jakarta.persistence.EntityManager;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
+
+class ProductExportRepositoryImpl implements ProductExportRepository {
+    private final EntityManager entityManager;
+
+    ProductExportRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Stream<Product> streamAllOrderedById(int fetchSize) {
+        return entityManager
+                .createQuery(
+                        """
+                        SELECT new com.js.bookstore.catalog.domain.Product(
+                            p.code, p.name, p.description, p.imageUrl, p.price)
+                        FROM ProductEntity p
+                        ORDER BY p.id
+                        """,
+                        Product.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
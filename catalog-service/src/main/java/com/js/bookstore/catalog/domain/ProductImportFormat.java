@@ -0,0 +1,6 @@
+package com.js.bookstore.catalog.domain;
+
+public enum ProductImportFormat {
+    CSV,
+    NDJSON
+}
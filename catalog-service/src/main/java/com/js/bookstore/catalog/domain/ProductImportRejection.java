@@ -0,0 +1,3 @@
+package com.js.bookstore.catalog.domain;
+
+public record ProductImportRejection(long row, String code, String reason) {}
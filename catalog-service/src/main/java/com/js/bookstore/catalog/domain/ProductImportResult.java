@@ -0,0 +1,11 @@
+package com.js.bookstore.catalog.domain;
+
+import java.util.List;
+
+public record ProductImportResult(
+        long totalRows,
+        long upserted,
+        long unchanged,
+        long rejected,
+        int batches,
+        List<ProductImportRejection> rejections) {}
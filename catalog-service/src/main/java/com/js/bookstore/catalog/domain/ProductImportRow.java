@@ -0,0 +1,31 @@
+package com.js.bookstore.catalog.domain;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+// mirrors the constraints declared on ProductEntity; blank text is stored as NULL, so code and name
+// must not be blank rather than just non-empty
+@JsonIgnoreProperties(ignoreUnknown = true)
+record ProductImportRow(
+        @NotBlank(message = "Product code is required") String code,
+        @NotBlank(message = "Product name is required") String name,
+        String description,
+        @JsonAlias("image_url") String imageUrl,
+        @NotNull(message = "Product price is required") @DecimalMin("0.1") BigDecimal price) {
+
+    // CSV values are trimmed by the parser, NDJSON values here
+    ProductImportRow {
+        code = strip(code);
+        name = strip(name);
+        description = strip(description);
+        imageUrl = strip(imageUrl);
+    }
+
+    private static String strip(String value) {
+        return value == null ? null : value.strip();
+    }
+}
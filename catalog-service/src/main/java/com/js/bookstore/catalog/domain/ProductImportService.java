@@ -0,0 +1,217 @@
+package com.js.bookstore.catalog.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.js.bookstore.catalog.ApplicationProperties;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+/**
+ * Streams an upload row by row and upserts it in batches. Every batch is a single
+ * INSERT ... SELECT FROM unnest(...) ON CONFLICT statement that commits on its own, so the
+ * product triggers fire once per batch and progress survives a failure half way through.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+    private static final String UPSERT_SQL =
+            """
+            INSERT INTO products (code, name, description, image_url, price)
+            SELECT * FROM unnest(cast(? AS text[]), cast(? AS text[]), cast(? AS text[]),
+                                 cast(? AS text[]), cast(? AS numeric[]))
+            ON CONFLICT (code) DO UPDATE
+            SET name = excluded.name,
+                description = excluded.description,
+                image_url = excluded.image_url,
+                price = excluded.price
+            WHERE (products.name, products.description, products.image_url, products.price)
+                IS DISTINCT FROM (excluded.name, excluded.description, excluded.image_url, excluded.price)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final Validator validator;
+    private final ApplicationProperties properties;
+
+    ProductImportService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            Validator validator,
+            ApplicationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .build();
+        this.validator = validator;
+        this.properties = properties;
+    }
+
+    public ProductImportResult importProducts(InputStream input, ProductImportFormat format) throws IOException {
+        ImportRun run = new ImportRun();
+        switch (format) {
+            case CSV -> readCsv(input, run);
+            case NDJSON -> readNdjson(input, run);
+        }
+        ProductImportResult result = run.finish();
+        log.info(
+                "Imported products: rows={}, upserted={}, unchanged={}, rejected={}, batches={}",
+                result.totalRows(),
+                result.upserted(),
+                result.unchanged(),
+                result.rejected(),
+                result.batches());
+        return result;
+    }
+
+    private void readCsv(InputStream input, ImportRun run) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Map<String, String>> rows =
+                csvMapper.readerForMapOf(String.class).with(schema).readValues(input)) {
+            while (rows.hasNextValue()) {
+                Map<String, String> values = rows.nextValue();
+                long rowNumber = run.nextRowNumber();
+                try {
+                    run.accept(rowNumber, objectMapper.convertValue(values, ProductImportRow.class));
+                } catch (IllegalArgumentException e) {
+                    run.reject(rowNumber, values.get("code"), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readNdjson(InputStream input, ImportRun run) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                long rowNumber = run.nextRowNumber();
+                try {
+                    run.accept(rowNumber, objectMapper.readValue(line, ProductImportRow.class));
+                } catch (JsonProcessingException e) {
+                    run.reject(rowNumber, null, e.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    private int upsert(List<ProductImportRow> rows) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (var statement = connection.prepareStatement(UPSERT_SQL)) {
+                statement.setArray(1, textArray(connection, rows.stream().map(ProductImportRow::code)));
+                statement.setArray(2, textArray(connection, rows.stream().map(ProductImportRow::name)));
+                statement.setArray(3, textArray(connection, rows.stream().map(ProductImportRow::description)));
+                statement.setArray(4, textArray(connection, rows.stream().map(ProductImportRow::imageUrl)));
+                statement.setArray(
+                        5,
+                        connection.createArrayOf(
+                                "numeric",
+                                rows.stream().map(ProductImportRow::price).toArray(BigDecimal[]::new)));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    private static Array textArray(Connection connection, Stream<String> values) throws SQLException {
+        return connection.createArrayOf(
+                "text", values.map(v -> StringUtils.hasText(v) ? v : null).toArray(String[]::new));
+    }
+
+    private class ImportRun {
+        private final int batchSize = properties.importBatchSize();
+        // keyed by code so that a repeated code within a batch keeps its last occurrence
+        private final Map<String, ProductImportRow> batch = new LinkedHashMap<>();
+        private final List<ProductImportRejection> rejections = new ArrayList<>();
+        private long totalRows;
+        private long upserted;
+        private long unchanged;
+        private long rejected;
+        private int batches;
+
+        long nextRowNumber() {
+            return ++totalRows;
+        }
+
+        void accept(long rowNumber, ProductImportRow row) {
+            if (row == null) {
+                // e.g. a NDJSON line holding the literal null
+                reject(rowNumber, null, "Row must be a JSON object");
+                return;
+            }
+            var violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                reject(
+                        rowNumber,
+                        row.code(),
+                        violations.stream()
+                                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                                .sorted()
+                                .collect(Collectors.joining(", ")));
+                return;
+            }
+            batch.put(row.code(), row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long rowNumber, String code, String reason) {
+            rejected++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(new ProductImportRejection(rowNumber, code, reason));
+            }
+        }
+
+        ProductImportResult finish() {
+            flush();
+            return new ProductImportResult(totalRows, upserted, unchanged, rejected, batches, List.copyOf(rejections));
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ProductImportRow> rows = List.copyOf(batch.values());
+            batch.clear();
+            int changed = upsert(rows);
+            batches++;
+            upserted += changed;
+            unchanged += rows.size() - changed;
+            log.info(
+                    "Import batch {} done: {} rows, {} upserted, progress {} rows read, {} rejected",
+                    batches,
+                    rows.size(),
+                    changed,
+                    totalRows,
+                    rejected);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.js.bookstore.catalog.domain;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.Set;
+
+public record ProductLookupRequest(
+        @NotEmpty(message = "Product codes are required")
+                @Size(max = 500, message = "At most 500 product codes are allowed")
+                Set<String> codes) {}
@@ -0,0 +1,6 @@
+package com.js.bookstore.catalog.domain;
+
+import java.util.List;
+import java.util.Set;
+
+public record ProductLookupResult(List<Product> products, Set<String> missingCodes) {}
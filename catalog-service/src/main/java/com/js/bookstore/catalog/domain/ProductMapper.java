@@ -10,4 +10,8 @@ class ProductMapper {
                 productEntity.getImageUrl(),
                 productEntity.getPrice());
     }
+
+    static Product toProduct(ProductRow row) {
+        return new Product(row.getCode(), row.getName(), row.getDescription(), row.getImageUrl(), row.getPrice());
+    }
 }
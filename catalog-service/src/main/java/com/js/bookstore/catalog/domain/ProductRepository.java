@@ -1,10 +1,139 @@
 package com.js.bookstore.catalog.domain;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+@Transactional(readOnly = true)
+interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductExportRepository {
     Optional<ProductEntity> findByCode(String code);
+
+    @Query(
+            """
+            SELECT new com.js.bookstore.catalog.domain.Product(p.code, p.name, p.description, p.imageUrl, p.price)
+            FROM ProductEntity p
+            WHERE p.code IN :codes
+            """)
+    List<Product> findProductsByCodeIn(Collection<String> codes);
+
+    // Listings order names with the "C" collation, i.e. by code point, which is also the order the
+    // in-memory ProductSnapshot uses; the default collation would depend on the database locale.
+    @Query(
+            value =
+                    """
+            SELECT id, code, name, description, image_url AS "imageUrl", price
+            FROM products
+            ORDER BY name COLLATE "C", id
+            """,
+            countQuery = "SELECT count(*) FROM products",
+            nativeQuery = true)
+    Page<ProductRow> findProducts(Pageable pageable);
+
+    @Query(
+            value =
+                    """
+            SELECT id, code, name, description, image_url AS "imageUrl", price
+            FROM products
+            ORDER BY name COLLATE "C", id
+            """,
+            nativeQuery = true)
+    Slice<ProductRow> findProductSlice(Pageable pageable);
+
+    @Query(
+            """
+            SELECT new com.js.bookstore.catalog.domain.VersionedProduct(
+                p.code, p.name, p.description, p.imageUrl, p.price, p.version, p.updatedAt)
+            FROM ProductEntity p
+            WHERE p.code = :code
+            """)
+    Optional<VersionedProduct> findVersionedByCode(String code);
+
+    @Query(
+            """
+            SELECT new com.js.bookstore.catalog.domain.ProductSnapshotRow(
+                p.id, p.code, p.name, p.description, p.imageUrl, p.price, p.version, p.updatedAt)
+            FROM ProductEntity p
+            """)
+    List<ProductSnapshotRow> findAllSnapshotRows();
+
+    @Query(
+            """
+            SELECT new com.js.bookstore.catalog.domain.ProductSnapshotRow(
+                p.id, p.code, p.name, p.description, p.imageUrl, p.price, p.version, p.updatedAt)
+            FROM ProductEntity p
+            WHERE p.code IN :codes
+            """)
+    List<ProductSnapshotRow> findSnapshotRowsByCodeIn(Collection<String> codes);
+
+    @Query(
+            """
+            SELECT new com.js.bookstore.catalog.domain.CatalogVersion(c.version, c.updatedAt)
+            FROM CatalogVersionEntity c
+            """)
+    CatalogVersion findCatalogVersion();
+
+    @Query(
+            value =
+                    """
+            SELECT id, code, name, description, image_url AS "imageUrl", price
+            FROM products
+            ORDER BY name COLLATE "C", id
+            LIMIT :limit
+            """,
+            nativeQuery = true)
+    List<ProductRow> findFirstRows(int limit);
+
+    @Query(
+            value =
+                    """
+            SELECT id, code, name, description, image_url AS "imageUrl", price
+            FROM products
+            WHERE (name COLLATE "C", id) > (:name, :id)
+            ORDER BY name COLLATE "C", id
+            LIMIT :limit
+            """,
+            nativeQuery = true)
+    List<ProductRow> findRowsAfter(String name, long id, int limit);
+
+    @Query(
+            value =
+                    """
+            SELECT p.id, p.code, p.name, p.description, p.image_url AS "imageUrl", p.price,
+                   ts_rank(p.search_vector, query) AS rank
+            FROM products p, websearch_to_tsquery('english', :text) query
+            WHERE p.search_vector @@ query
+            ORDER BY rank DESC, p.id
+            LIMIT :limit
+            """,
+            nativeQuery = true)
+    List<ProductSearchHit> search(String text, int limit);
+
+    @Query(
+            value =
+                    """
+            SELECT * FROM (
+                SELECT p.id, p.code, p.name, p.description, p.image_url AS "imageUrl", p.price,
+                       ts_rank(p.search_vector, query) AS rank
+                FROM products p, websearch_to_tsquery('english', :text) query
+                WHERE p.search_vector @@ query
+            ) hits
+            WHERE hits.rank < :rank OR (hits.rank = :rank AND hits.id > :id)
+            ORDER BY hits.rank DESC, hits.id
+            LIMIT :limit
+            """,
+            nativeQuery = true)
+    List<ProductSearchHit> searchAfter(String text, float rank, long id, int limit);
+
+    @Query(
+            value = "SELECT cast(greatest(reltuples, 0) AS bigint) FROM pg_class WHERE oid = to_regclass('products')",
+            nativeQuery = true)
+    long estimateCount();
 }
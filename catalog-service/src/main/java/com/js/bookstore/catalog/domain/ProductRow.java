@@ -0,0 +1,20 @@
+package com.js.bookstore.catalog.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat product columns read by native queries, mapped without hydrating a {@link ProductEntity}.
+ */
+interface ProductRow {
+    Long getId();
+
+    String getCode();
+
+    String getName();
+
+    String getDescription();
+
+    String getImageUrl();
+
+    BigDecimal getPrice();
+}
@@ -0,0 +1,35 @@
+package com.js.bookstore.catalog.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a search hit in the (rank desc, id asc) result order, encoded as an opaque URL-safe token.
+ */
+record ProductSearchCursor(float rank, long id) {
+    private static final char SEPARATOR = ':';
+
+    static ProductSearchCursor of(ProductSearchHit hit) {
+        return new ProductSearchCursor(hit.getRank(), hit.getId());
+    }
+
+    String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + rank;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductSearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            if (separatorIndex < 1) {
+                throw InvalidCursorException.forCursor(cursor);
+            }
+            long id = Long.parseLong(raw.substring(0, separatorIndex));
+            float rank = Float.parseFloat(raw.substring(separatorIndex + 1));
+            return new ProductSearchCursor(rank, id);
+        } catch (IllegalArgumentException e) {
+            throw InvalidCursorException.forCursor(cursor);
+        }
+    }
+}
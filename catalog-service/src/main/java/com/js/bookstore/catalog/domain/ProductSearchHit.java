@@ -0,0 +1,5 @@
+package com.js.bookstore.catalog.domain;
+
+interface ProductSearchHit extends ProductRow {
+    Float getRank();
+}
@@ -1,32 +1,66 @@
 package com.js.bookstore.catalog.domain;
 
 import com.js.bookstore.catalog.ApplicationProperties;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class ProductService {
+    static final String PRODUCTS_CACHE = "products";
+
     private final ProductRepository productRepository;
     private final ApplicationProperties properties;
+    private final Optional<ProductSnapshotStore> snapshotStore;
 
-    ProductService(ProductRepository productRepository, ApplicationProperties properties) {
+    ProductService(
+            ProductRepository productRepository,
+            ApplicationProperties properties,
+            Optional<ProductSnapshotStore> snapshotStore) {
         this.productRepository = productRepository;
         this.properties = properties;
+        this.snapshotStore = snapshotStore;
+    }
+
+    public boolean isServedFromSnapshot() {
+        return snapshotStore.isPresent();
     }
 
-    public PagedResult<Product> getProducts(int pageNo) {
-        Sort sort = Sort.by("name").ascending();
+    private Optional<ProductSnapshot> snapshot() {
+        return snapshotStore.map(ProductSnapshotStore::current);
+    }
+
+    // repeatable read makes the catalog version and the page come from the same database snapshot
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CatalogPage<PagedResult<Product>> getProducts(int pageNo) {
         pageNo = pageNo <= 1 ? 0 : pageNo - 1;
-        Pageable pageable = PageRequest.of(pageNo, properties.pageSize(), sort);
-        var productsPage = productRepository.findAll(pageable).map(ProductMapper::toProduct);
+        Optional<ProductSnapshot> snapshot = snapshot();
+        if (snapshot.isPresent()) {
+            return new CatalogPage<>(snapshot.get().version(), snapshot.get().getPage(pageNo, properties.pageSize()));
+        }
+        return new CatalogPage<>(productRepository.findCatalogVersion(), getProductsFromDatabase(pageNo));
+    }
+
+    private PagedResult<Product> getProductsFromDatabase(int pageNo) {
+        Pageable pageable = PageRequest.of(pageNo, properties.pageSize());
+        if (properties.approximateTotalElements()) {
+            return getProductsWithApproximateTotal(pageable);
+        }
+        var productsPage = productRepository.findProducts(pageable);
 
         return new PagedResult<>(
-                productsPage.getContent(),
+                productsPage.getContent().stream().map(ProductMapper::toProduct).toList(),
                 productsPage.getTotalElements(),
                 productsPage.getNumber() + 1,
                 productsPage.getTotalPages(),
@@ -36,7 +70,112 @@ public class ProductService {
                 productsPage.hasPrevious());
     }
 
-    public Optional<Product> getProductByCode(String code) {
-        return productRepository.findByCode(code).map(ProductMapper::toProduct);
+    private PagedResult<Product> getProductsWithApproximateTotal(Pageable pageable) {
+        var productsSlice = productRepository.findProductSlice(pageable);
+        long seen = pageable.getOffset() + productsSlice.getNumberOfElements();
+        long totalElements = productsSlice.hasNext() ? Math.max(productRepository.estimateCount(), seen + 1) : seen;
+        int totalPages = (int) ((totalElements + pageable.getPageSize() - 1) / pageable.getPageSize());
+
+        return new PagedResult<>(
+                productsSlice.getContent().stream()
+                        .map(ProductMapper::toProduct)
+                        .toList(),
+                totalElements,
+                productsSlice.getNumber() + 1,
+                totalPages,
+                productsSlice.isFirst(),
+                productsSlice.isLast(),
+                productsSlice.hasNext(),
+                productsSlice.hasPrevious());
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CatalogPage<CursorPagedResult<Product>> getProductsAfter(String cursor) {
+        Optional<ProductSnapshot> snapshot = snapshot();
+        if (snapshot.isPresent()) {
+            ProductCursor after = StringUtils.hasText(cursor) ? ProductCursor.decode(cursor) : null;
+            return new CatalogPage<>(
+                    snapshot.get().version(), snapshot.get().getPageAfter(after, properties.pageSize()));
+        }
+        return new CatalogPage<>(productRepository.findCatalogVersion(), getProductsAfterFromDatabase(cursor));
+    }
+
+    private CursorPagedResult<Product> getProductsAfterFromDatabase(String cursor) {
+        int pageSize = properties.pageSize();
+        List<ProductRow> rows;
+        if (StringUtils.hasText(cursor)) {
+            ProductCursor after = ProductCursor.decode(cursor);
+            rows = productRepository.findRowsAfter(after.name(), after.id(), pageSize + 1);
+        } else {
+            rows = productRepository.findFirstRows(pageSize + 1);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor =
+                hasNext ? ProductCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new CursorPagedResult<>(
+                page.stream().map(ProductMapper::toProduct).toList(), nextCursor, hasNext);
+    }
+
+    public CursorPagedResult<Product> searchProducts(String text, String cursor) {
+        int pageSize = properties.pageSize();
+        List<ProductSearchHit> hits;
+        if (StringUtils.hasText(cursor)) {
+            ProductSearchCursor after = ProductSearchCursor.decode(cursor);
+            hits = productRepository.searchAfter(text, after.rank(), after.id(), pageSize + 1);
+        } else {
+            hits = productRepository.search(text, pageSize + 1);
+        }
+
+        boolean hasNext = hits.size() > pageSize;
+        List<ProductSearchHit> page = hasNext ? hits.subList(0, pageSize) : hits;
+        String nextCursor =
+                hasNext ? ProductSearchCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new CursorPagedResult<>(
+                page.stream().map(ProductMapper::toProduct).toList(), nextCursor, hasNext);
+    }
+
+    public void exportProducts(Consumer<Product> consumer) {
+        Optional<ProductSnapshot> snapshot = snapshot();
+        if (snapshot.isPresent()) {
+            snapshot.get().products().forEach(consumer);
+            return;
+        }
+        try (Stream<Product> products = productRepository.streamAllOrderedById(properties.exportFetchSize())) {
+            products.forEach(consumer);
+        }
+    }
+
+    // snapshot lookups are already in memory and caching them would race with snapshot updates
+    @Cacheable(cacheNames = PRODUCTS_CACHE, sync = true, condition = "!#root.target.servedFromSnapshot")
+    public Optional<VersionedProduct> getProductByCode(String code) {
+        Optional<ProductSnapshot> snapshot = snapshot();
+        if (snapshot.isPresent()) {
+            return snapshot.get().getByCode(code);
+        }
+        return productRepository.findVersionedByCode(code);
+    }
+
+    /**
+     * The version listings are currently served at: the snapshot's own version in snapshot mode,
+     * otherwise the database catalog version.
+     */
+    public CatalogVersion getCatalogVersion() {
+        Optional<ProductSnapshot> snapshot = snapshot();
+        return snapshot.isPresent() ? snapshot.get().version() : productRepository.findCatalogVersion();
+    }
+
+    public ProductLookupResult getProductsByCodes(Set<String> codes) {
+        Optional<ProductSnapshot> snapshot = snapshot();
+        List<Product> products = snapshot.isPresent()
+                ? codes.stream()
+                        .flatMap(code -> snapshot.get().getByCode(code).stream())
+                        .map(VersionedProduct::product)
+                        .toList()
+                : productRepository.findProductsByCodeIn(codes);
+        Set<String> missingCodes = new HashSet<>(codes);
+        products.forEach(product -> missingCodes.remove(product.code()));
+        return new ProductLookupResult(products, missingCodes);
     }
 }
@@ -0,0 +1,197 @@
+package com.js.bookstore.catalog.domain;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, (name, id)-ordered view of the whole catalog. Changes produce a new snapshot, so readers
+ * never observe a partially applied update.
+ *
+ * <p>The snapshot carries its own {@link #version()}: a hash over the (id, product version) pairs it
+ * holds. It changes whenever the content changes and is the same on every replica holding the same
+ * content. The database catalog version cannot be used instead because a snapshot lags behind it.
+ */
+final class ProductSnapshot {
+    // Names compare by code point, like the database listings with the "C" collation on a UTF-8
+    // database. String.compareTo compares UTF-16 units, which differs for supplementary characters.
+    static final Comparator<ProductSnapshotRow> ORDER = Comparator.comparing(
+                    ProductSnapshotRow::name, ProductSnapshot::compareNames)
+            .thenComparingLong(ProductSnapshotRow::id);
+
+    private final ProductSnapshotRow[] rows;
+    private final List<Product> products;
+    private final Map<String, VersionedProduct> productsByCode;
+    private final long estimatedSizeInBytes;
+    private final CatalogVersion version;
+
+    private ProductSnapshot(ProductSnapshotRow[] sortedRows) {
+        this.rows = sortedRows;
+        Product[] productArray = new Product[sortedRows.length];
+        this.productsByCode = HashMap.newHashMap(sortedRows.length);
+        long size = 0;
+        long contentHash = 0;
+        for (int i = 0; i < sortedRows.length; i++) {
+            ProductSnapshotRow row = sortedRows[i];
+            productArray[i] = row.product().product();
+            productsByCode.put(row.code(), row.product());
+            size += estimateSizeInBytes(row);
+            contentHash += contentHash(row);
+        }
+        this.products = List.of(productArray);
+        this.estimatedSizeInBytes = size;
+        // the build time is only a Last-Modified approximation; the content hash is the validator
+        this.version = new CatalogVersion(contentHash, Instant.now());
+    }
+
+    static ProductSnapshot of(Collection<ProductSnapshotRow> rows) {
+        ProductSnapshotRow[] sortedRows = rows.toArray(ProductSnapshotRow[]::new);
+        Arrays.sort(sortedRows, ORDER);
+        return new ProductSnapshot(sortedRows);
+    }
+
+    /**
+     * Returns a new snapshot where every product with one of the given codes is replaced by the
+     * matching row in {@code changedRows}, or removed when there is none.
+     */
+    ProductSnapshot withChanges(Set<String> changedCodes, List<ProductSnapshotRow> changedRows) {
+        Set<Long> changedIds = new HashSet<>();
+        changedRows.forEach(row -> changedIds.add(row.id()));
+        List<ProductSnapshotRow> additions = new ArrayList<>(changedRows);
+        additions.sort(ORDER);
+
+        List<ProductSnapshotRow> merged = new ArrayList<>(rows.length + additions.size());
+        int next = 0;
+        for (ProductSnapshotRow row : rows) {
+            if (changedCodes.contains(row.code()) || changedIds.contains(row.id())) {
+                continue;
+            }
+            while (next < additions.size() && ORDER.compare(additions.get(next), row) < 0) {
+                merged.add(additions.get(next++));
+            }
+            merged.add(row);
+        }
+        while (next < additions.size()) {
+            merged.add(additions.get(next++));
+        }
+        return new ProductSnapshot(merged.toArray(ProductSnapshotRow[]::new));
+    }
+
+    CatalogVersion version() {
+        return version;
+    }
+
+    List<Product> products() {
+        return products;
+    }
+
+    int size() {
+        return rows.length;
+    }
+
+    long estimatedSizeInBytes() {
+        return estimatedSizeInBytes;
+    }
+
+    Optional<VersionedProduct> getByCode(String code) {
+        return Optional.ofNullable(productsByCode.get(code));
+    }
+
+    PagedResult<Product> getPage(int pageIndex, int pageSize) {
+        int totalPages = (rows.length + pageSize - 1) / pageSize;
+        int from = (int) Math.min((long) pageIndex * pageSize, rows.length);
+        int to = Math.min(from + pageSize, rows.length);
+        boolean hasNext = pageIndex + 1 < totalPages;
+        return new PagedResult<>(
+                products.subList(from, to),
+                rows.length,
+                pageIndex + 1,
+                totalPages,
+                pageIndex == 0,
+                !hasNext,
+                hasNext,
+                pageIndex > 0);
+    }
+
+    CursorPagedResult<Product> getPageAfter(ProductCursor cursor, int pageSize) {
+        int from = cursor == null ? 0 : indexAfter(cursor);
+        int to = Math.min(from + pageSize, rows.length);
+        boolean hasNext = to < rows.length;
+        String nextCursor = hasNext ? new ProductCursor(rows[to - 1].name(), rows[to - 1].id()).encode() : null;
+        return new CursorPagedResult<>(products.subList(from, to), nextCursor, hasNext);
+    }
+
+    private int indexAfter(ProductCursor cursor) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            ProductSnapshotRow row = rows[mid];
+            int cmp = compareNames(row.name(), cursor.name());
+            if (cmp < 0 || (cmp == 0 && row.id() <= cursor.id())) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static int compareNames(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    // SplitMix64 finalizer over (id, version); summing the row hashes makes the result independent
+    // of row order
+    private static long contentHash(ProductSnapshotRow row) {
+        long h = row.id() * 0x9E3779B97F4A7C15L + row.product().version();
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    // Rough retained size assuming compressed oops: row, VersionedProduct, Product, Instant and
+    // BigDecimal objects, their strings, plus the array slots and hash map node pointing at them.
+    private static long estimateSizeInBytes(ProductSnapshotRow row) {
+        Product product = row.product().product();
+        return 24
+                + 24
+                + 32
+                + 24
+                + 40
+                + 8
+                + 8
+                + 48
+                + estimateSizeInBytes(product.code())
+                + estimateSizeInBytes(product.name())
+                + estimateSizeInBytes(product.description())
+                + estimateSizeInBytes(product.imageUrl());
+    }
+
+    private static long estimateSizeInBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c <= 0xFF);
+        return 24 + 16 + (long) value.length() * (latin1 ? 1 : 2);
+    }
+}
@@ -0,0 +1,27 @@
+package com.js.bookstore.catalog.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+record ProductSnapshotRow(long id, VersionedProduct product) {
+
+    ProductSnapshotRow(
+            long id,
+            String code,
+            String name,
+            String description,
+            String imageUrl,
+            BigDecimal price,
+            long version,
+            Instant lastModified) {
+        this(id, new VersionedProduct(code, name, description, imageUrl, price, version, lastModified));
+    }
+
+    String code() {
+        return product.product().code();
+    }
+
+    String name() {
+        return product.product().name();
+    }
+}
@@ -0,0 +1,148 @@
+package com.js.bookstore.catalog.domain;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@link ProductSnapshot} used by "snapshot mode" up to date. All rebuilds run on a single
+ * thread, and changes that arrive while it is busy are coalesced into the next update.
+ */
+@Component
+@ConditionalOnProperty(prefix = "catalog", name = "snapshot-enabled", havingValue = "true")
+class ProductSnapshotStore implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ProductSnapshotStore.class);
+
+    private final ProductRepository productRepository;
+    private final AtomicReference<ProductSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final Set<String> pendingCodes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("product-snapshot").daemon().factory());
+    private final Timer rebuildTimer;
+    private final Timer updateTimer;
+
+    ProductSnapshotStore(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.rebuildTimer = Timer.builder("catalog.snapshot.rebuild")
+                .description("Time taken to load the whole catalog into a snapshot")
+                .register(meterRegistry);
+        this.updateTimer = Timer.builder("catalog.snapshot.update")
+                .description("Time taken to apply incremental product changes to the snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.products", this, store -> store.sizeOf(ProductSnapshot::size))
+                .description("Number of products held in the snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.memory", this, store -> store.sizeOf(ProductSnapshot::estimatedSizeInBytes))
+                .description("Estimated heap retained by the snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.memory.per.product", this, ProductSnapshotStore::estimatedBytesPerProduct)
+                .description("Estimated heap retained by the snapshot per product")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    ProductSnapshot current() {
+        return snapshot.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        requestRebuild();
+    }
+
+    @EventListener
+    void onProductChanged(ProductChangedEvent event) {
+        if (event.affectsAllProducts()) {
+            requestRebuild();
+        } else {
+            pendingCodes.add(event.code());
+            executor.execute(this::applyPendingChanges);
+        }
+    }
+
+    private void requestRebuild() {
+        rebuildRequested.set(true);
+        executor.execute(this::applyPendingChanges);
+    }
+
+    private void applyPendingChanges() {
+        try {
+            if (rebuildRequested.getAndSet(false)) {
+                pendingCodes.clear();
+                rebuild();
+                return;
+            }
+            ProductSnapshot current = snapshot.get();
+            Set<String> codes = drainPendingCodes();
+            if (current == null || codes.isEmpty()) {
+                return;
+            }
+            updateTimer.record(() -> {
+                List<ProductSnapshotRow> rows = productRepository.findSnapshotRowsByCodeIn(codes);
+                snapshot.set(current.withChanges(codes, rows));
+            });
+            log.debug("Applied changes for {} products to the catalog snapshot", codes.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to update the catalog snapshot, scheduling a full rebuild", e);
+            requestRebuild();
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        ProductSnapshot rebuilt = ProductSnapshot.of(productRepository.findAllSnapshotRows());
+        long elapsedNanos = System.nanoTime() - start;
+        rebuildTimer.record(Duration.ofNanos(elapsedNanos));
+        snapshot.set(rebuilt);
+        log.info(
+                "Built catalog snapshot with {} products in {} ms, ~{} bytes per product",
+                rebuilt.size(),
+                elapsedNanos / 1_000_000,
+                (long) estimatedBytesPerProduct());
+    }
+
+    private Set<String> drainPendingCodes() {
+        Set<String> codes = new HashSet<>();
+        Iterator<String> iterator = pendingCodes.iterator();
+        while (iterator.hasNext()) {
+            codes.add(iterator.next());
+            iterator.remove();
+        }
+        return codes;
+    }
+
+    private double sizeOf(ToLongFunction<ProductSnapshot> metric) {
+        ProductSnapshot current = snapshot.get();
+        return current == null ? 0 : metric.applyAsLong(current);
+    }
+
+    private double estimatedBytesPerProduct() {
+        ProductSnapshot current = snapshot.get();
+        return current == null || current.size() == 0 ? 0 : (double) current.estimatedSizeInBytes() / current.size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.js.bookstore.catalog.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record VersionedProduct(Product product, long version, Instant lastModified) {
+
+    public VersionedProduct(
+            String code,
+            String name,
+            String description,
+            String imageUrl,
+            BigDecimal price,
+            long version,
+            Instant lastModified) {
+        this(new Product(code, name, description, imageUrl, price), version, lastModified);
+    }
+}
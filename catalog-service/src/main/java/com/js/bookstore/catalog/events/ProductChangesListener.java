@@ -0,0 +1,100 @@
+package com.js.bookstore.catalog.events;
+
+import com.js.bookstore.catalog.domain.ProductChangedEvent;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listens on the Postgres 'product_changes' channel (see V3 migration) on a dedicated connection
+ * and republishes every notification as a {@link ProductChangedEvent}.
+ */
+@Component
+class ProductChangesListener implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ProductChangesListener.class);
+    private static final String CHANNEL = "product_changes";
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final JdbcConnectionDetails connectionDetails;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    ProductChangesListener(JdbcConnectionDetails connectionDetails, ApplicationEventPublisher eventPublisher) {
+        this.connectionDetails = connectionDetails;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("product-changes-listener").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                listen();
+            } catch (SQLException e) {
+                log.warn("Lost connection while listening for product changes: {}", e.getMessage());
+                sleep(RECONNECT_DELAY);
+            }
+        }
+    }
+
+    private void listen() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                connectionDetails.getJdbcUrl(), connectionDetails.getUsername(), connectionDetails.getPassword())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+            }
+            log.info("Listening for product changes on channel: {}", CHANNEL);
+            // notifications may have been missed while disconnected
+            eventPublisher.publishEvent(ProductChangedEvent.allProducts());
+
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            while (running) {
+                PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                if (notifications == null) {
+                    continue;
+                }
+                for (PGNotification notification : notifications) {
+                    eventPublisher.publishEvent(new ProductChangedEvent(notification.getParameter()));
+                }
+            }
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
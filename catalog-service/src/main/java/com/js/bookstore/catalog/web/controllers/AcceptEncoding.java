@@ -0,0 +1,46 @@
+package com.js.bookstore.catalog.web.controllers;
+
+import java.util.Locale;
+
+/** Reads an Accept-Encoding header (RFC 9110, section 12.5.3) including its quality values. */
+final class AcceptEncoding {
+
+    private AcceptEncoding() {}
+
+    /**
+     * Whether gzip is acceptable: listed as gzip (or x-gzip), or covered by "*", with a non-zero
+     * quality. An explicit gzip entry wins over "*", so "gzip;q=0, *" refuses gzip.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].strip().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality(parts);
+            } else if (name.equals("*")) {
+                wildcard = quality(parts);
+            }
+        }
+        double quality = gzip != null ? gzip : wildcard != null ? wildcard : 0;
+        return quality > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].strip();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).strip());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.js.bookstore.catalog.web.controllers;
+
+import com.js.bookstore.catalog.domain.VersionedProduct;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/** Strong entity tags (RFC 9110, section 8.8.3) of catalog resources. */
+final class EntityTags {
+
+    private EntityTags() {}
+
+    /**
+     * The row version restarts at 0 when a product is deleted and re-inserted under the same code, so
+     * the tag also carries the last modification time, in microseconds like updated_at.
+     */
+    static String product(VersionedProduct product) {
+        return "\"" + product.version() + "-" + ChronoUnit.MICROS.between(Instant.EPOCH, product.lastModified()) + "\"";
+    }
+
+    /**
+     * A strong tag identifies the exact bytes of the representation, so the gzip-encoded body needs a
+     * tag of its own, distinct from the identity body's.
+     */
+    static String gzip(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+    }
+}
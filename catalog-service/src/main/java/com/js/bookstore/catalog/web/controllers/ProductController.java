@@ -1,38 +1,164 @@
 package com.js.bookstore.catalog.web.controllers;
 
-import com.js.bookstore.catalog.domain.PagedResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.js.bookstore.catalog.ApplicationProperties;
+import com.js.bookstore.catalog.domain.CatalogPage;
+import com.js.bookstore.catalog.domain.CatalogVersion;
+import com.js.bookstore.catalog.domain.CursorPagedResult;
 import com.js.bookstore.catalog.domain.Product;
+import com.js.bookstore.catalog.domain.ProductImportFormat;
+import com.js.bookstore.catalog.domain.ProductImportResult;
+import com.js.bookstore.catalog.domain.ProductImportService;
+import com.js.bookstore.catalog.domain.ProductLookupRequest;
+import com.js.bookstore.catalog.domain.ProductLookupResult;
 import com.js.bookstore.catalog.domain.ProductNotFoundException;
 import com.js.bookstore.catalog.domain.ProductService;
+import com.js.bookstore.catalog.domain.VersionedProduct;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/products")
 class ProductController {
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductPageCache productPageCache;
+    private final ApplicationProperties properties;
+    private final ObjectWriter productWriter;
 
-    ProductController(ProductService productService) {
+    ProductController(
+            ProductService productService,
+            ProductImportService productImportService,
+            ProductPageCache productPageCache,
+            ApplicationProperties properties,
+            ObjectMapper objectMapper) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.productPageCache = productPageCache;
+        this.properties = properties;
+        // lines are terminated explicitly, so no separator (by default a space) between root values
+        this.productWriter = objectMapper
+                .writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
     }
 
-    @GetMapping
-    PagedResult<Product> getProduct(@RequestParam(name = "page", defaultValue = "1") int pageNo) {
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<byte[]> getProduct(@RequestParam(name = "page", defaultValue = "1") int pageNo, WebRequest request) {
+        CatalogVersion catalogVersion = productService.getCatalogVersion();
+        boolean gzip = productPageCache.hasGzipped(pageNo)
+                && AcceptEncoding.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (request.checkNotModified(
+                listingETag(catalogVersion, gzip), catalogVersion.lastModified().toEpochMilli())) {
+            return null;
+        }
         logger.info("Fetching products for page: {}", pageNo);
-        return productService.getProducts(pageNo);
+        ProductPageCache.EncodedPage page =
+                productPageCache.get(catalogVersion, pageNo, () -> productService.getProducts(pageNo));
+        // the validators describe the catalog the page was rendered from, which may be newer
+        var response = ResponseEntity.ok()
+                .eTag(listingETag(page.version(), gzip))
+                .lastModified(page.version().lastModified())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.gzipped());
+        }
+        return response.body(page.json());
+    }
+
+    @GetMapping(params = "after")
+    ResponseEntity<CursorPagedResult<Product>> getProductsAfter(
+            @RequestParam(name = "after") String after, WebRequest request) {
+        CatalogVersion catalogVersion = productService.getCatalogVersion();
+        String eTag = catalogETag(catalogVersion);
+        if (request.checkNotModified(eTag, catalogVersion.lastModified().toEpochMilli())) {
+            return null;
+        }
+        logger.info("Fetching products after cursor: {}", after);
+        // the validators describe the catalog the page was rendered from, which may be newer
+        CatalogPage<CursorPagedResult<Product>> page = productService.getProductsAfter(after);
+        return ResponseEntity.ok()
+                .eTag(catalogETag(page.version()))
+                .lastModified(page.version().lastModified())
+                .body(page.page());
+    }
+
+    @GetMapping("/search")
+    CursorPagedResult<Product> searchProducts(
+            @RequestParam(name = "q") String query, @RequestParam(name = "after", required = false) String after) {
+        logger.info("Searching products for query: {}", query);
+        return productService.searchProducts(query, after);
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    void exportProducts(HttpServletResponse response) throws IOException {
+        logger.info("Exporting all products");
+        response.setContentType("application/x-ndjson");
+        try (JsonGenerator generator = productWriter.createGenerator(response.getOutputStream())) {
+            productService.exportProducts(product -> {
+                try {
+                    productWriter.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    ProductImportResult importProductsFromCsv(InputStream body) throws IOException {
+        logger.info("Importing products from CSV");
+        return productImportService.importProducts(body, ProductImportFormat.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    ProductImportResult importProductsFromNdjson(InputStream body) throws IOException {
+        logger.info("Importing products from NDJSON");
+        return productImportService.importProducts(body, ProductImportFormat.NDJSON);
     }
 
     @GetMapping("/{code}")
     ResponseEntity<Product> getProductByCode(@PathVariable String code) {
         // sleep();
         logger.info("Fetching product for code: {}", code);
-        return productService
-                .getProductByCode(code)
-                .map(ResponseEntity::ok)
-                .orElseThrow(() -> ProductNotFoundException.forCode(code));
+        VersionedProduct product =
+                productService.getProductByCode(code).orElseThrow(() -> ProductNotFoundException.forCode(code));
+        // conditional requests are answered with 304 by Spring MVC based on these headers
+        return ResponseEntity.ok()
+                .eTag(EntityTags.product(product))
+                .lastModified(product.lastModified())
+                .body(product.product());
+    }
+
+    @PostMapping("/lookup")
+    ProductLookupResult lookupProducts(@Valid @RequestBody ProductLookupRequest request) {
+        logger.info("Looking up products for {} codes", request.codes().size());
+        return productService.getProductsByCodes(request.codes());
+    }
+
+    private String catalogETag(CatalogVersion catalogVersion) {
+        return "\"" + catalogVersion.version() + "-" + properties.pageSize() + "\"";
+    }
+
+    private String listingETag(CatalogVersion catalogVersion, boolean gzip) {
+        String eTag = catalogETag(catalogVersion);
+        return gzip ? EntityTags.gzip(eTag) : eTag;
     }
 
     /*void sleep() {
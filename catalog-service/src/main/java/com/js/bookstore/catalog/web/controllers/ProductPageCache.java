@@ -0,0 +1,95 @@
+package com.js.bookstore.catalog.web.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.js.bookstore.catalog.ApplicationProperties;
+import com.js.bookstore.catalog.domain.CatalogPage;
+import com.js.bookstore.catalog.domain.CatalogVersion;
+import com.js.bookstore.catalog.domain.PagedResult;
+import com.js.bookstore.catalog.domain.Product;
+import com.js.bookstore.catalog.domain.ProductChangedEvent;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the first listing pages as ready-to-write JSON (and gzip) bytes. Entries are keyed by the
+ * version of the catalog they were rendered from, which they also carry, so the validators sent with
+ * a cached page always describe its content. The whole cache is dropped on every product change to
+ * release the superseded pages.
+ */
+@Component
+class ProductPageCache {
+    static final String PRODUCT_PAGES_CACHE = "product-pages";
+
+    private final Cache cache;
+    private final ObjectMapper objectMapper;
+    private final ApplicationProperties properties;
+
+    ProductPageCache(CacheManager cacheManager, ObjectMapper objectMapper, ApplicationProperties properties) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(PRODUCT_PAGES_CACHE));
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    EncodedPage get(CatalogVersion catalogVersion, int pageNo, Supplier<CatalogPage<PagedResult<Product>>> loader) {
+        int page = Math.max(pageNo, 1);
+        if (page > properties.cachedListingPages()) {
+            CatalogPage<PagedResult<Product>> loaded = loader.get();
+            return new EncodedPage(loaded.version(), toJson(loaded.page()), null);
+        }
+        PageKey key = new PageKey(catalogVersion.version(), properties.pageSize(), page);
+        EncodedPage encoded = cache.get(key, () -> encode(loader.get()));
+        if (encoded.version().version() != catalogVersion.version()) {
+            // the catalog changed between reading its version and rendering the page: file the page
+            // under the version it was rendered from instead
+            cache.evictIfPresent(key);
+            cache.put(new PageKey(encoded.version().version(), properties.pageSize(), page), encoded);
+        }
+        return encoded;
+    }
+
+    /** Whether {@link #get} returns the given page with gzip bytes as well. */
+    boolean hasGzipped(int pageNo) {
+        return properties.gzipCachedListingPages() && Math.max(pageNo, 1) <= properties.cachedListingPages();
+    }
+
+    @EventListener
+    void onProductChanged(ProductChangedEvent event) {
+        cache.clear();
+    }
+
+    private EncodedPage encode(CatalogPage<PagedResult<Product>> loaded) {
+        byte[] json = toJson(loaded.page());
+        return new EncodedPage(loaded.version(), json, properties.gzipCachedListingPages() ? gzip(json) : null);
+    }
+
+    private byte[] toJson(PagedResult<Product> result) {
+        try {
+            return objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        var out = new ByteArrayOutputStream(bytes.length / 4);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    record EncodedPage(CatalogVersion version, byte[] json, byte[] gzipped) {}
+
+    private record PageKey(long catalogVersion, int pageSize, int page) {}
+}
@@ -0,0 +1,57 @@
+-- Broadcasts product changes on the 'product_changes' channel so that every catalog-service
+-- replica can invalidate its local caches. Large statements collapse into a single '*' payload.
+create or replace function notify_product_changes() returns trigger as
+$$
+declare
+    changed_codes text[];
+    changed_code  text;
+begin
+    if tg_op = 'TRUNCATE' then
+        perform pg_notify('product_changes', '*');
+        return null;
+    end if;
+
+    if tg_op = 'INSERT' then
+        select array_agg(distinct code) into changed_codes from new_rows;
+    elsif tg_op = 'DELETE' then
+        select array_agg(distinct code) into changed_codes from old_rows;
+    else
+        select array_agg(distinct code)
+        into changed_codes
+        from (select code from old_rows union select code from new_rows) changed;
+    end if;
+
+    if changed_codes is null then
+        return null;
+    end if;
+
+    if cardinality(changed_codes) > 100 then
+        perform pg_notify('product_changes', '*');
+    else
+        foreach changed_code in array changed_codes
+            loop
+                perform pg_notify('product_changes', changed_code);
+            end loop;
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger products_insert_notify
+    after insert on products
+    referencing new table as new_rows
+    for each statement execute function notify_product_changes();
+
+create trigger products_update_notify
+    after update on products
+    referencing old table as old_rows new table as new_rows
+    for each statement execute function notify_product_changes();
+
+create trigger products_delete_notify
+    after delete on products
+    referencing old table as old_rows
+    for each statement execute function notify_product_changes();
+
+create trigger products_truncate_notify
+    after truncate on products
+    for each statement execute function notify_product_changes();
@@ -0,0 +1 @@
+create index products_name_id_idx on products (name, id);
@@ -0,0 +1,40 @@
+alter table products add column version bigint not null default 0;
+alter table products add column updated_at timestamptz not null default now();
+
+create or replace function bump_product_version() returns trigger as
+$$
+begin
+    new.version := old.version + 1;
+    new.updated_at := now();
+    return new;
+end;
+$$ language plpgsql;
+
+create trigger products_bump_version
+    before update on products
+    for each row
+    when (old.* is distinct from new.*)
+execute function bump_product_version();
+
+create table catalog_version
+(
+    id         integer     not null check (id = 1),
+    version    bigint      not null,
+    updated_at timestamptz not null,
+    primary key (id)
+);
+
+insert into catalog_version(id, version, updated_at) values (1, 0, now());
+
+create or replace function bump_catalog_version() returns trigger as
+$$
+begin
+    update catalog_version set version = version + 1, updated_at = now() where id = 1;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger products_bump_catalog_version
+    after insert or update or delete or truncate on products
+    for each statement
+execute function bump_catalog_version();
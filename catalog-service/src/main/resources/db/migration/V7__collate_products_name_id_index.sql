@@ -0,0 +1,3 @@
+-- listings order names by code point ("C" collation), the same order as the in-memory snapshot
+create index products_name_c_id_idx on products (name collate "C", id);
+drop index products_name_id_idx;
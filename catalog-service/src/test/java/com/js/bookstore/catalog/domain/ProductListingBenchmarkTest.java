@@ -0,0 +1,100 @@
+package com.js.bookstore.catalog.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares the entity based listing page (read-write transaction, managed entities copied into
+ * {@link Product}) with the projection based one (read-only transaction, constructor expression).
+ * Run with {@code ./mvnw test -Dtest=ProductListingBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest(
+        properties = {
+            "spring.test.database.replace=none",
+            "spring.datasource.url=jdbc:tc:postgresql:16-alpine:///db",
+        })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductListingBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(ProductListingBenchmarkTest.class);
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 2000;
+    private static final PageRequest PAGE =
+            PageRequest.of(10, 50, Sort.by("name").ascending());
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from products");
+        jdbcTemplate.update(
+                """
+                insert into products(code, name, description, image_url, price)
+                select 'B-' || i, 'Benchmark Book ' || i, 'Benchmark description number ' || i,
+                       'https://example.com/' || i || '.jpg', 10.0
+                from generate_series(1, 10000) i
+                """);
+    }
+
+    @Test
+    void compareEntityAndProjectionListingPages() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Result entities = measure(() -> readWrite.execute(status ->
+                productRepository.findAll(PAGE).map(ProductMapper::toProduct).getContent()));
+        Result projections = measure(() -> readOnly.execute(status -> productRepository
+                .findProducts(PAGE.withSort(Sort.unsorted()))
+                .map(ProductMapper::toProduct)
+                .getContent()));
+
+        log.info("Listing page of {} products, {} iterations", PAGE.getPageSize(), MEASURED_ITERATIONS);
+        log.info("  entities:    {} us/page, {} bytes/page", entities.microsPerPage(), entities.bytesPerPage());
+        log.info("  projections: {} us/page, {} bytes/page", projections.microsPerPage(), projections.bytesPerPage());
+
+        assertThat(projections.bytesPerPage()).isLessThan(entities.bytesPerPage());
+    }
+
+    private Result measure(Supplier<List<Product>> listing) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            assertThat(listing.get()).hasSize(PAGE.getPageSize());
+        }
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            listing.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Result(elapsed / 1_000L / MEASURED_ITERATIONS, allocated / MEASURED_ITERATIONS);
+    }
+
+    private record Result(long microsPerPage, long bytesPerPage) {}
+}
@@ -4,9 +4,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
 @DataJpaTest(
@@ -20,6 +27,12 @@ class ProductRepositoryTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
     @Test
     void shouldGetAllProducts() {
         List<ProductEntity> products = productRepository.findAll();
@@ -39,4 +52,64 @@ class ProductRepositoryTest {
     void shouldReturnEmptyWhenProductCodeNotExists() {
         assertThat(productRepository.findByCode("invalid_product_code")).isEmpty();
     }
+
+    @Test
+    void shouldSearchProductsByText() {
+        List<ProductSearchHit> hits = productRepository.search("hunger games", 10);
+        assertThat(hits).extracting(ProductSearchHit::getCode).containsExactly("P100");
+    }
+
+    @Test
+    void shouldUseSearchVectorIndexForTextSearch() {
+        jdbcTemplate.update(
+                """
+                insert into products(code, name, description, price)
+                select 'GEN-' || i, 'Generated Book ' || i, 'Generated description number ' || i, 10.0
+                from generate_series(1, 50000) i
+                """);
+        jdbcTemplate.execute("analyze products");
+
+        statementRecorder.statements.clear();
+        productRepository.search("hunger", 11);
+        assertThat(explainRecordedStatement("hunger", 11)).contains("products_search_vector_idx");
+
+        statementRecorder.statements.clear();
+        productRepository.searchAfter("hunger", 0.5f, 1, 11);
+        // :rank appears twice in the query, so it is bound twice
+        assertThat(explainRecordedStatement("hunger", 0.5f, 0.5f, 1L, 11)).contains("products_search_vector_idx");
+    }
+
+    /**
+     * Explains the SQL the repository method actually sent, bound to the given arguments in the
+     * order their placeholders appear in that SQL.
+     */
+    private String explainRecordedStatement(Object... arguments) {
+        assertThat(statementRecorder.statements).hasSize(1);
+        List<String> plan =
+                jdbcTemplate.queryForList("explain " + statementRecorder.statements.get(0), String.class, arguments);
+        return String.join("\n", plan);
+    }
+
+    static class StatementRecorder implements StatementInspector {
+        final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementRecorderConfig {
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementRecorderCustomizer(StatementRecorder statementRecorder) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementRecorder);
+        }
+    }
 }
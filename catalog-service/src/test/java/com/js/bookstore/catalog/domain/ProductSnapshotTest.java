@@ -0,0 +1,101 @@
+package com.js.bookstore.catalog.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ProductSnapshotTest {
+
+    @Test
+    void shouldServePagesInNameOrder() {
+        ProductSnapshot snapshot =
+                ProductSnapshot.of(List.of(row(3, "P3", "Charlie"), row(1, "P1", "Alpha"), row(2, "P2", "Bravo")));
+
+        PagedResult<Product> firstPage = snapshot.getPage(0, 2);
+        assertThat(firstPage.data()).extracting(Product::code).containsExactly("P1", "P2");
+        assertThat(firstPage.totalElements()).isEqualTo(3);
+        assertThat(firstPage.totalPages()).isEqualTo(2);
+        assertThat(firstPage.hasNext()).isTrue();
+
+        PagedResult<Product> lastPage = snapshot.getPage(1, 2);
+        assertThat(lastPage.data()).extracting(Product::code).containsExactly("P3");
+        assertThat(lastPage.isLast()).isTrue();
+    }
+
+    @Test
+    void shouldOrderNamesByCodePointLikeTheDatabase() {
+        ProductSnapshot snapshot = ProductSnapshot.of(List.of(
+                row(1, "P1", "alpha"),
+                row(2, "P2", "Émile"),
+                row(3, "P3", "Zebra"),
+                row(4, "P4", "Alpha"),
+                row(5, "P5", "\uD835\uDC00 Bold"),
+                row(6, "P6", "\uFB01ne print")));
+
+        // SELECT name FROM products ORDER BY name COLLATE "C", id
+        assertThat(snapshot.getPage(0, 10).data())
+                .extracting(Product::code)
+                .containsExactly("P4", "P3", "P1", "P2", "P6", "P5");
+
+        CursorPagedResult<Product> firstPage = snapshot.getPageAfter(null, 4);
+        assertThat(snapshot.getPageAfter(ProductCursor.decode(firstPage.nextCursor()), 4)
+                        .data())
+                .extracting(Product::code)
+                .containsExactly("P6", "P5");
+    }
+
+    @Test
+    void shouldServePagesAfterCursor() {
+        ProductSnapshot snapshot =
+                ProductSnapshot.of(List.of(row(1, "P1", "Alpha"), row(2, "P2", "Alpha"), row(3, "P3", "Bravo")));
+
+        CursorPagedResult<Product> firstPage = snapshot.getPageAfter(null, 2);
+        assertThat(firstPage.data()).extracting(Product::code).containsExactly("P1", "P2");
+        assertThat(firstPage.hasNext()).isTrue();
+
+        CursorPagedResult<Product> secondPage = snapshot.getPageAfter(ProductCursor.decode(firstPage.nextCursor()), 2);
+        assertThat(secondPage.data()).extracting(Product::code).containsExactly("P3");
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldApplyChangesWithoutModifyingOriginalSnapshot() {
+        ProductSnapshot snapshot =
+                ProductSnapshot.of(List.of(row(1, "P1", "Alpha"), row(2, "P2", "Bravo"), row(3, "P3", "Charlie")));
+
+        ProductSnapshot changed =
+                snapshot.withChanges(Set.of("P1", "P2", "P4"), List.of(row(1, "P1", "Delta"), row(4, "P4", "Able")));
+
+        assertThat(changed.getPage(0, 10).data()).extracting(Product::code).containsExactly("P4", "P3", "P1");
+        assertThat(changed.getByCode("P2")).isEmpty();
+        assertThat(snapshot.getPage(0, 10).data()).extracting(Product::code).containsExactly("P1", "P2", "P3");
+    }
+
+    @Test
+    void shouldChangeVersionExactlyWhenContentChanges() {
+        ProductSnapshot snapshot =
+                ProductSnapshot.of(List.of(row(1, "P1", "Alpha"), row(2, "P2", "Bravo"), row(3, "P3", "Charlie")));
+        ProductSnapshot sameContent =
+                ProductSnapshot.of(List.of(row(3, "P3", "Charlie"), row(2, "P2", "Bravo"), row(1, "P1", "Alpha")));
+        ProductSnapshot updated = snapshot.withChanges(Set.of("P1"), List.of(row(1, "P1", "Alpha", 1)));
+        ProductSnapshot deleted = snapshot.withChanges(Set.of("P2"), List.of());
+
+        assertThat(sameContent.version().version()).isEqualTo(snapshot.version().version());
+        assertThat(updated.version().version()).isNotEqualTo(snapshot.version().version());
+        assertThat(deleted.version().version())
+                .isNotEqualTo(snapshot.version().version())
+                .isNotEqualTo(updated.version().version());
+    }
+
+    private static ProductSnapshotRow row(long id, String code, String name) {
+        return row(id, code, name, 0);
+    }
+
+    private static ProductSnapshotRow row(long id, String code, String name, long version) {
+        return new ProductSnapshotRow(id, code, name, null, null, BigDecimal.TEN, version, Instant.EPOCH);
+    }
+}
@@ -0,0 +1,38 @@
+package com.js.bookstore.catalog.web.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class AcceptEncodingTest {
+
+    @ParameterizedTest
+    @CsvSource(
+            delimiter = '|',
+            value = {
+                "gzip                       | true",
+                "GZIP                       | true",
+                "deflate, gzip;q=0.5        | true",
+                "x-gzip                     | true",
+                "*                          | true",
+                "br, *;q=0.1                | true",
+                "gzip;q=0                   | false",
+                "gzip; q=0.000              | false",
+                "gzip;q=0, *                | false",
+                "*;q=0                      | false",
+                "deflate, br                | false",
+                "identity                   | false",
+                "gzipped                    | false",
+            })
+    void shouldHonourQualityValues(String acceptEncoding, boolean acceptsGzip) {
+        assertThat(AcceptEncoding.acceptsGzip(acceptEncoding)).isEqualTo(acceptsGzip);
+    }
+
+    @Test
+    void shouldNotAcceptGzipWithoutHeader() {
+        assertThat(AcceptEncoding.acceptsGzip(null)).isFalse();
+        assertThat(AcceptEncoding.acceptsGzip("")).isFalse();
+    }
+}
@@ -0,0 +1,32 @@
+package com.js.bookstore.catalog.web.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.js.bookstore.catalog.domain.VersionedProduct;
+import java.math.BigDecimal;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class EntityTagsTest {
+
+    @Test
+    void shouldTellReinsertedProductsApartFromTheOriginal() {
+        Instant inserted = Instant.parse("2024-01-01T00:00:00.000001Z");
+        VersionedProduct original = product(0, inserted);
+        VersionedProduct reinserted = product(0, inserted.plusNanos(1_000));
+
+        assertThat(EntityTags.product(original)).isEqualTo(EntityTags.product(product(0, inserted)));
+        assertThat(EntityTags.product(reinserted)).isNotEqualTo(EntityTags.product(original));
+        assertThat(EntityTags.product(original)).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void shouldTagGzipEncodedBodiesSeparately() {
+        assertThat(EntityTags.gzip("\"42-10\"")).isEqualTo("\"42-10-gzip\"");
+    }
+
+    private static VersionedProduct product(long version, Instant lastModified) {
+        return new VersionedProduct(
+                "P100", "The Hunger Games", null, null, new BigDecimal("34.0"), version, lastModified);
+    }
+}
@@ -2,19 +2,32 @@ package com.js.bookstore.catalog.web.controllers;
 
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 import com.js.bookstore.catalog.AbstractIntegrationTest;
+import com.js.bookstore.catalog.TestJwtConfig;
 import com.js.bookstore.catalog.domain.Product;
 import io.restassured.http.ContentType;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
 @Sql("/test-data.sql")
 class ProductControllerTest extends AbstractIntegrationTest {
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @Test
     void shouldReturnProducts() {
         given().contentType(ContentType.JSON)
@@ -32,6 +45,196 @@ class ProductControllerTest extends AbstractIntegrationTest {
                 .body("hasPrevious", is(false));
     }
 
+    @Test
+    void shouldServeCachedListingPageGzippedAndRefreshItAfterChanges() {
+        given().header("Accept-Encoding", "gzip")
+                .when()
+                .get("/api/products")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .body("data[0].code", is("P111"));
+
+        given().header("Accept-Encoding", "gzip;q=0, *")
+                .when()
+                .get("/api/products")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .body("data[0].code", is("P111"));
+
+        jdbcTemplate.update("update products set name = 'AAA First Book' where code = 'P100'");
+
+        given().when()
+                .get("/api/products")
+                .then()
+                .statusCode(200)
+                .body("data[0].code", is("P100"))
+                .body("data[0].name", is("AAA First Book"));
+    }
+
+    @Test
+    void shouldReturnProductsPageByPageUsingCursor() {
+        String nextCursor = given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products?after=")
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(10))
+                .body("data[0].code", is("P111"))
+                .body("hasNext", is(true))
+                .body("nextCursor", notNullValue())
+                .extract()
+                .path("nextCursor");
+
+        given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products?after={cursor}", nextCursor)
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(5))
+                .body("hasNext", is(false))
+                .body("nextCursor", nullValue());
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenCursorIsInvalid() {
+        given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products?after={cursor}", "not-a-cursor")
+                .then()
+                .statusCode(400)
+                .body("title", is("Invalid Cursor"));
+    }
+
+    @Test
+    void shouldSearchProducts() {
+        given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products/search?q={query}", "mockingbird")
+                .then()
+                .statusCode(200)
+                .body("data", hasSize(1))
+                .body("data[0].code", is("P101"))
+                .body("hasNext", is(false));
+    }
+
+    @Test
+    void shouldExportAllProductsAsNdjson() {
+        byte[] body = given().when()
+                .get("/api/products/export")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract()
+                .asByteArray();
+
+        String ndjson = new String(body, StandardCharsets.UTF_8);
+        assertThat(ndjson.lines())
+                .hasSize(15)
+                .allSatisfy(line -> assertThat(line).startsWith("{\"code\":").endsWith("}"));
+        assertThat(ndjson).endsWith("}\n");
+        assertThat(body)
+                .startsWith(
+                        """
+                        {"code":"P100","name":"The Hunger Games",\
+                        "description":"Winning will make you famous. Losing means certain death...",\
+                        "imageUrl":"https://images.gr-assets.com/books/1447303603l/2767052.jpg","price":34.0}
+                        {"code":"P101","name":"To Kill a Mockingbird",\
+                        """
+                                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldImportProductsFromCsv() {
+        String csv =
+                """
+                code,name,description,imageUrl,price
+                P100,The Hunger Games,Winning will make you famous.,https://images.gr-assets.com/books/1447303603l/2767052.jpg,42.00
+                P200,New Book,,,12.50
+                P201,,Missing name,,10
+                P202,Bad Price,,,abc
+                """;
+
+        given().contentType("text/csv")
+                .auth()
+                .oauth2(TestJwtConfig.token("catalog-admin"))
+                .body(csv)
+                .when()
+                .post("/api/products/import")
+                .then()
+                .statusCode(200)
+                .body("totalRows", is(4))
+                .body("upserted", is(2))
+                .body("rejected", is(2))
+                .body("batches", is(1))
+                .body("rejections.row", contains(3, 4))
+                .body("rejections.code", contains("P201", "P202"));
+
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from products where code = 'P200' and price = 12.50", Integer.class);
+        assertThat(count).isEqualTo(1);
+        BigDecimal price =
+                jdbcTemplate.queryForObject("select price from products where code = 'P100'", BigDecimal.class);
+        assertThat(price).isEqualByComparingTo("42.00");
+    }
+
+    @Test
+    void shouldImportProductsFromNdjson() {
+        String ndjson =
+                """
+                {"code":"P300","name":"Streamed Book","price":9.99}
+                {"code":"P301","name":"Broken"
+                {"code":"P302","name":"Another Book","image_url":"https://example.com/p302.jpg","price":19.99}
+                {"code":"P303","name":"   ","price":5.00}
+                null
+                """;
+
+        given().contentType("application/x-ndjson")
+                .auth()
+                .oauth2(TestJwtConfig.token("catalog-admin"))
+                .body(ndjson)
+                .when()
+                .post("/api/products/import")
+                .then()
+                .statusCode(200)
+                .body("totalRows", is(5))
+                .body("upserted", is(2))
+                .body("rejected", is(3))
+                .body("rejections.row", contains(2, 4, 5))
+                .body("rejections[1].code", is("P303"));
+
+        String imageUrl =
+                jdbcTemplate.queryForObject("select image_url from products where code = 'P302'", String.class);
+        assertThat(imageUrl).isEqualTo("https://example.com/p302.jpg");
+    }
+
+    @Test
+    void shouldRejectAnonymousProductImport() {
+        given().contentType("text/csv")
+                .body("code,name,description,imageUrl,price\nP100,Overwritten,,,0.01\n")
+                .when()
+                .post("/api/products/import")
+                .then()
+                .statusCode(401);
+
+        BigDecimal price =
+                jdbcTemplate.queryForObject("select price from products where code = 'P100'", BigDecimal.class);
+        assertThat(price).isEqualByComparingTo("34.0");
+    }
+
+    @Test
+    void shouldRejectProductImportWithoutCatalogAdminRole() {
+        given().contentType("application/x-ndjson")
+                .auth()
+                .oauth2(TestJwtConfig.token("default-roles-bookstore"))
+                .body("{\"code\":\"P100\",\"name\":\"Overwritten\",\"price\":0.01}\n")
+                .when()
+                .post("/api/products/import")
+                .then()
+                .statusCode(403);
+    }
+
     @Test
     void shouldGetProductByCode() {
         Product product = given().contentType(ContentType.JSON)
@@ -62,4 +265,114 @@ class ProductControllerTest extends AbstractIntegrationTest {
                 .body("title", is("Product Not Found"))
                 .body("detail", is("Product with code " + code + " not found"));
     }
+
+    @Test
+    void shouldReturnNotModifiedWhenProductETagMatches() {
+        String eTag = given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products/{code}", "P100")
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .header("Last-Modified", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given().contentType(ContentType.JSON)
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/products/{code}", "P100")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenCatalogETagMatches() {
+        String eTag = given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products")
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given().contentType(ContentType.JSON)
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/products")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    void shouldTagGzipAndIdentityListingBodiesDifferently() {
+        String gzipETag = given().header("Accept-Encoding", "gzip")
+                .when()
+                .get("/api/products")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .extract()
+                .header("ETag");
+        String identityETag = given().header("Accept-Encoding", "identity")
+                .when()
+                .get("/api/products")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .extract()
+                .header("ETag");
+
+        assertThat(gzipETag).isNotEqualTo(identityETag);
+        given().header("Accept-Encoding", "gzip")
+                .header("If-None-Match", identityETag)
+                .when()
+                .get("/api/products")
+                .then()
+                .statusCode(200)
+                .header("ETag", gzipETag);
+        given().header("Accept-Encoding", "gzip")
+                .header("If-None-Match", gzipETag)
+                .when()
+                .get("/api/products")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    void shouldLookupProductsByCodes() {
+        given().contentType(ContentType.JSON)
+                .body(
+                        """
+                        {
+                            "codes": ["P100", "P101", "P999"]
+                        }
+                        """)
+                .when()
+                .post("/api/products/lookup")
+                .then()
+                .statusCode(200)
+                .body("products.code", containsInAnyOrder("P100", "P101"))
+                .body("missingCodes", contains("P999"));
+    }
+
+    @Test
+    void shouldReturnUpdatedProductAfterProductChanges() {
+        given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products/{code}", "P101")
+                .then()
+                .statusCode(200)
+                .body("price", is(45.40f));
+
+        jdbcTemplate.update("update products set price = 50.0 where code = ?", "P101");
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> given().contentType(ContentType.JSON)
+                .when()
+                .get("/api/products/{code}", "P101")
+                .then()
+                .statusCode(200)
+                .body("price", is(50.0f)));
+    }
 }
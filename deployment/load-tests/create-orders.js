@@ -0,0 +1,54 @@
+// Load test for POST /api/orders, used to compare order-service in platform-thread and
+// virtual-thread mode (spring.threads.virtual.enabled). See README.md in this directory.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const ORDER_SERVICE_URL = __ENV.ORDER_SERVICE_URL || 'http://localhost:8082';
+const TOKEN_URL = __ENV.TOKEN_URL || 'http://localhost:9191/realms/bookstore/protocol/openid-connect/token';
+const USERS = parseInt(__ENV.USERS || '5000');
+
+export const options = {
+    scenarios: {
+        checkout: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: USERS },
+                { duration: '3m', target: USERS },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const response = http.post(TOKEN_URL, {
+        grant_type: 'password',
+        client_id: __ENV.CLIENT_ID || 'bookstore-webapp',
+        client_secret: __ENV.CLIENT_SECRET,
+        username: __ENV.USERNAME,
+        password: __ENV.PASSWORD,
+    });
+    check(response, { 'token issued': (r) => r.status === 200 });
+    return { token: response.json('access_token') };
+}
+
+export default function (data) {
+    const payload = JSON.stringify({
+        customer: { name: 'Load Test', email: 'loadtest@mail.com', phone: '999999999' },
+        deliveryAddress: {
+            addressLine1: 'HNO 123',
+            addressLine2: 'Street',
+            city: 'Noida',
+            state: 'UP',
+            zipCode: '201309',
+            country: 'India',
+        },
+        items: [{ code: 'P100', name: 'The Hunger Games', price: 34.0, quantity: 1 }],
+    });
+    const response = http.post(`${ORDER_SERVICE_URL}/api/orders`, payload, {
+        headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${data.token}` },
+    });
+    check(response, { 'order created': (r) => r.status === 201 || r.status === 202 });
+}
@@ -1,6 +1,8 @@
 package com.js.bookstore.orders;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "orders")
 public record ApplicationProperties(
@@ -9,4 +11,28 @@ public record ApplicationProperties(
         String newOrdersQueue,
         String deliveredOrdersQueue,
         String cancelledOrdersQueue,
-        String errorOrdersQueue) {}
+        String errorOrdersQueue,
+        @DefaultValue("100") int validationBatchSize,
+        @DefaultValue("5s") Duration validationTimeout,
+        @DefaultValue("30s") Duration catalogCacheTtl,
+        @DefaultValue("5m") Duration catalogCacheMaxStale,
+        @DefaultValue("0s") Duration catalogCacheStaleIfError,
+        @DefaultValue("10000") long catalogCacheMaximumSize,
+        @DefaultValue("24h") Duration idempotencyKeyTtl,
+        @DefaultValue("500") int bulkOrdersChunkSize,
+        @DefaultValue("false") boolean asyncAcceptanceEnabled,
+        @DefaultValue("10000") int asyncAcceptanceBufferSize,
+        @DefaultValue("200") int asyncAcceptanceMaxBatchSize,
+        @DefaultValue("50") int catalogClientMaxConnectionsPerRoute,
+        @DefaultValue("2s") Duration catalogClientConnectionRequestTimeout,
+        @DefaultValue("30s") Duration catalogClientIdleTimeout,
+        @DefaultValue("60s") Duration catalogClientKeepAlive,
+        @DefaultValue("false") boolean catalogClientHttp2,
+        @DefaultValue("500") int newOrdersChunkSize,
+        @DefaultValue("5m") Duration newOrdersClaimTimeout,
+        @DefaultValue("2") int pipelineLoadParallelism,
+        @DefaultValue("1") int pipelineDecideParallelism,
+        @DefaultValue("2") int pipelinePersistParallelism,
+        @DefaultValue("4") int pipelineQueueCapacity,
+        @DefaultValue("true") boolean processNewOrdersOnCommit,
+        @DefaultValue("classpath:delivery-rules.json") String deliveryRulesLocation) {}
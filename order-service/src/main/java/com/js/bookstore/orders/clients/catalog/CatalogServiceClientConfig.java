@@ -1,21 +1,159 @@
 package com.js.bookstore.orders.clients.catalog;
 
 import com.js.bookstore.orders.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.net.http.HttpClient;
 import java.time.Duration;
-import org.springframework.boot.web.client.ClientHttpRequestFactories;
-import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.io.HttpConnectionFactory;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 @Configuration
 class CatalogServiceClientConfig {
+    private static final String POOL_NAME = "catalog-service";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(5);
+    private static final TimeValue VALIDATE_AFTER_INACTIVITY = TimeValue.ofSeconds(2);
+
     @Bean
-    RestClient restClient(RestClient.Builder builder, ApplicationProperties properties) {
+    RestClient restClient(
+            RestClient.Builder builder,
+            ApplicationProperties properties,
+            Environment environment,
+            CloseableHttpClient catalogServiceHttpClient) {
+        // httpcore5 5.2 waits for pooled connections in synchronized BasicFuture.get, which pins
+        // virtual threads, so they use the JDK client instead
+        ClientHttpRequestFactory requestFactory =
+                properties.catalogClientHttp2() || Threading.VIRTUAL.isActive(environment)
+                        ? jdkRequestFactory(properties.catalogClientHttp2(), environment)
+                        : new HttpComponentsClientHttpRequestFactory(catalogServiceHttpClient);
         return builder.baseUrl(properties.catalogServiceUrl())
-                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
-                        .withConnectTimeout(Duration.ofSeconds(5))
-                        .withReadTimeout(Duration.ofSeconds(5))))
+                .requestFactory(requestFactory)
                 .build();
     }
+
+    @Bean
+    CloseableHttpClient catalogServiceHttpClient(ApplicationProperties properties, MeterRegistry meterRegistry) {
+        var connectionManager = new InstrumentedConnectionManager(meterRegistry);
+        connectionManager.setMaxTotal(properties.catalogClientMaxConnectionsPerRoute());
+        connectionManager.setDefaultMaxPerRoute(properties.catalogClientMaxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(CONNECT_TIMEOUT))
+                .setSocketTimeout(Timeout.of(READ_TIMEOUT))
+                .setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY)
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+
+        TimeValue keepAlive = TimeValue.of(properties.catalogClientKeepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.catalogClientConnectionRequestTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> keepAlive)
+                .evictIdleConnections(TimeValue.of(properties.catalogClientIdleTimeout()))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    private static ClientHttpRequestFactory jdkRequestFactory(boolean http2, Environment environment) {
+        HttpClient.Builder httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(CONNECT_TIMEOUT);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(READ_TIMEOUT);
+        return requestFactory;
+    }
+
+    /**
+     * Records how long requests wait for a pooled connection and how many connections are opened,
+     * so that leases / connections opened gives the connection reuse ratio.
+     */
+    private static class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Timer leaseTimer;
+
+        InstrumentedConnectionManager(MeterRegistry meterRegistry) {
+            super(
+                    RegistryBuilder.<ConnectionSocketFactory>create()
+                            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                            .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                            .build(),
+                    PoolConcurrencyPolicy.STRICT,
+                    PoolReusePolicy.LIFO,
+                    // no time to live: idle connections are evicted, and the keep-alive applies
+                    TimeValue.NEG_ONE_MILLISECOND,
+                    countingConnectionFactory(meterRegistry));
+            this.leaseTimer = Timer.builder("httpcomponents.httpclient.pool.lease")
+                    .description("Time spent waiting for a pooled connection")
+                    .tag("httpclient", POOL_NAME)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            LeaseRequest leaseRequest = super.lease(id, route, requestTimeout, state);
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                    Timer.Sample sample = Timer.start();
+                    try {
+                        return leaseRequest.get(timeout);
+                    } finally {
+                        sample.stop(leaseTimer);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return leaseRequest.cancel();
+                }
+            };
+        }
+
+        private static HttpConnectionFactory<ManagedHttpClientConnection> countingConnectionFactory(
+                MeterRegistry meterRegistry) {
+            Counter connectionsOpened = Counter.builder("httpcomponents.httpclient.pool.connections.opened")
+                    .description("Connections opened by the pool; compare with lease count for reuse")
+                    .tag("httpclient", POOL_NAME)
+                    .register(meterRegistry);
+            return socket -> {
+                connectionsOpened.increment();
+                return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+            };
+        }
+    }
 }
@@ -0,0 +1,7 @@
+package com.js.bookstore.orders.clients.catalog;
+
+public class CatalogServiceUnavailableException extends RuntimeException {
+    public CatalogServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
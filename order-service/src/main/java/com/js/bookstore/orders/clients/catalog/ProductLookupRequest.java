@@ -0,0 +1,5 @@
+package com.js.bookstore.orders.clients.catalog;
+
+import java.util.Set;
+
+public record ProductLookupRequest(Set<String> codes) {}
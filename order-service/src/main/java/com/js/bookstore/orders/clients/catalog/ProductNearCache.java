@@ -0,0 +1,178 @@
+package com.js.bookstore.orders.clients.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.js.bookstore.orders.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local cache of catalog products in front of {@link ProductServiceClient}.
+ * <ul>
+ *     <li>younger than the TTL: served from the cache</li>
+ *     <li>within the max-stale window after the TTL: served from the cache and refreshed in the background</li>
+ *     <li>older, or missing: fetched from catalog-service; if catalog-service is unavailable, entries within
+ *     the stale-if-error window after the max-stale window are served instead, and if any of the
+ *     requested products is not, {@link CatalogServiceUnavailableException} is thrown</li>
+ * </ul>
+ * Entries are therefore served for at most TTL + max-stale while catalog-service is down (the background
+ * refresh fails but the cached product is still returned); stale-if-error extends that by its own length,
+ * and the default of zero rejects orders for products past max-stale.
+ */
+@Component
+public class ProductNearCache {
+    private static final Logger log = LoggerFactory.getLogger(ProductNearCache.class);
+
+    private final ProductServiceClient client;
+    private final Clock clock;
+    private final Duration ttl;
+    private final Duration maxStale;
+    private final Duration staleIfError;
+    private final Cache<String, CachedProduct> cache;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    ProductNearCache(ProductServiceClient client, ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this(client, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    ProductNearCache(
+            ProductServiceClient client, ApplicationProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.client = client;
+        this.clock = clock;
+        this.ttl = properties.catalogCacheTtl();
+        this.maxStale = properties.catalogCacheMaxStale();
+        this.staleIfError = properties.catalogCacheStaleIfError();
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.catalogCacheMaximumSize())
+                .expireAfterWrite(ttl.plus(maxStale).plus(staleIfError))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalog-products");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public List<Product> getProductsByCodes(Set<String> codes) {
+        Instant now = clock.instant();
+        List<Product> products = new ArrayList<>(codes.size());
+        Set<String> stale = new HashSet<>();
+        Set<String> missing = new HashSet<>();
+        for (String code : codes) {
+            CachedProduct cached = cache.getIfPresent(code);
+            if (cached == null || cached.isOlderThan(now, ttl.plus(maxStale))) {
+                missing.add(code);
+            } else {
+                products.add(cached.product());
+                if (cached.isOlderThan(now, ttl)) {
+                    stale.add(code);
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            refreshInBackground(stale);
+        }
+        if (!missing.isEmpty()) {
+            products.addAll(fetch(missing, now));
+        }
+        return products;
+    }
+
+    private List<Product> fetch(Set<String> codes, Instant now) {
+        try {
+            List<Product> products = client.getProductsByCodes(codes);
+            put(products);
+            return products;
+        } catch (CatalogServiceUnavailableException e) {
+            List<Product> fallback = codes.stream()
+                    .map(cache::getIfPresent)
+                    .filter(cached -> cached != null
+                            && !cached.isOlderThan(now, ttl.plus(maxStale).plus(staleIfError)))
+                    .map(CachedProduct::product)
+                    .toList();
+            if (fallback.size() < codes.size()) {
+                // an unknown code cannot be told apart from one that is simply not cached
+                log.warn(
+                        "catalog-service unavailable, {} of {} products not in stale cache: {}",
+                        codes.size() - fallback.size(),
+                        codes.size(),
+                        e.getMessage());
+                throw e;
+            }
+            log.warn(
+                    "catalog-service unavailable, serving {} products from stale cache: {}",
+                    codes.size(),
+                    e.getMessage());
+            meterRegistry.counter("orders.catalog.cache.stale.if.error").increment(fallback.size());
+            return fallback;
+        }
+    }
+
+    /**
+     * Fetches the given products from catalog-service regardless of their age, for callers that found a
+     * cached product disagreeing with what a client sent. Returns nothing if catalog-service is unavailable.
+     */
+    public List<Product> refresh(Set<String> codes) {
+        try {
+            List<Product> products = client.getProductsByCodes(codes);
+            put(products);
+            return products;
+        } catch (CatalogServiceUnavailableException e) {
+            log.warn("catalog-service unavailable, could not refresh {} products: {}", codes.size(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void refreshInBackground(Set<String> codes) {
+        Set<String> toRefresh = new HashSet<>();
+        for (String code : codes) {
+            if (refreshing.add(code)) {
+                toRefresh.add(code);
+            }
+        }
+        if (toRefresh.isEmpty()) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                put(client.getProductsByCodes(toRefresh));
+            } catch (RuntimeException e) {
+                log.warn("Background refresh of {} products failed: {}", toRefresh.size(), e.getMessage());
+            } finally {
+                refreshing.removeAll(toRefresh);
+            }
+        });
+    }
+
+    private void put(List<Product> products) {
+        Instant fetchedAt = clock.instant();
+        products.forEach(product -> cache.put(product.code(), new CachedProduct(product, fetchedAt)));
+    }
+
+    private record CachedProduct(Product product, Instant fetchedAt) {
+        boolean isOlderThan(Instant now, Duration age) {
+            return fetchedAt.plus(age).isBefore(now);
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.js.bookstore.orders.clients.catalog;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
@@ -33,4 +36,26 @@ public class ProductServiceClient {
         log.info("catalog-service get product by code fallback: code: {}, error: {}", code, t.getMessage());
         return Optional.empty();
     }
+
+    @CircuitBreaker(name = "catalog-service")
+    @Retry(name = "catalog-service", fallbackMethod = "getProductsByCodesFallback")
+    public List<Product> getProductsByCodes(Set<String> codes) {
+        log.info("Fetching products for {} codes", codes.size());
+
+        var result = restClient
+                .post()
+                .uri("/api/products/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ProductLookupRequest(codes))
+                .retrieve()
+                .body(ProductLookupResult.class);
+
+        return result == null ? List.of() : result.products();
+    }
+
+    public List<Product> getProductsByCodesFallback(Set<String> codes, Throwable t) {
+        log.info("catalog-service get products by codes fallback: codes: {}, error: {}", codes, t.getMessage());
+        // lets ProductNearCache tell an unavailable catalog apart from unknown product codes
+        throw new CatalogServiceUnavailableException("catalog-service is unavailable", t);
+    }
 }
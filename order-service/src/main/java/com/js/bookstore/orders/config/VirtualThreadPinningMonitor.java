@@ -0,0 +1,77 @@
+package com.js.bookstore.orders.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event in-process, so virtual threads that block
+ * while pinned to their carrier (e.g. inside synchronized driver code) show up in metrics and logs.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+class VirtualThreadPinningMonitor implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration THRESHOLD = Duration.ofMillis(20);
+
+    private final Timer pinnedTimer;
+    private RecordingStream recordingStream;
+
+    VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads blocked while pinned to their carrier thread longer than "
+                        + THRESHOLD.toMillis() + "ms")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(THRESHOLD).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        if (log.isWarnEnabled()) {
+            log.warn("Virtual thread pinned for {}ms at {}", event.getDuration().toMillis(), pinnedAt(event));
+        }
+    }
+
+    private static String pinnedAt(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .limit(5)
+                .map(frame -> frame.getMethod().getType().getName() + "."
+                        + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .reduce((a, b) -> a + " <- " + b)
+                .orElse("unknown");
+    }
+}
@@ -0,0 +1,206 @@
+package com.js.bookstore.orders.domain;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.js.bookstore.orders.ApplicationProperties;
+import com.js.bookstore.orders.clients.catalog.CatalogServiceUnavailableException;
+import com.js.bookstore.orders.clients.catalog.Product;
+import com.js.bookstore.orders.domain.models.BulkCreateOrdersResponse;
+import com.js.bookstore.orders.domain.models.BulkOrderResult;
+import com.js.bookstore.orders.domain.models.CreateOrderRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates orders from a streamed JSON array. Orders are handled in chunks: each chunk is
+ * validated against one catalog lookup and persisted in its own transaction, so orders, items and
+ * ORDER_CREATED events go out as JDBC batches (see hibernate.jdbc.batch_size). Elements that are
+ * not valid orders are rejected one by one; a payload that stops being valid JSON ends the import,
+ * and the orders read before that point are still created and reported.
+ */
+@Service
+public class BulkOrderService {
+    private static final Logger log = LoggerFactory.getLogger(BulkOrderService.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderEventService orderEventService;
+    private final OrderValidator orderValidator;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationProperties properties;
+
+    BulkOrderService(
+            OrderRepository orderRepository,
+            OrderEventService orderEventService,
+            OrderValidator orderValidator,
+            Validator validator,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            ApplicationProperties properties) {
+        this.orderRepository = orderRepository;
+        this.orderEventService = orderEventService;
+        this.orderValidator = orderValidator;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    public BulkCreateOrdersResponse createOrders(String userName, InputStream body) throws IOException {
+        List<BulkOrderResult> results = new ArrayList<>();
+        List<IndexedRequest> chunk = new ArrayList<>();
+        int index = 0;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidOrderException("Bulk orders must be sent as a JSON array");
+            }
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new JsonParseException(parser, "Unexpected end of bulk orders array");
+                    }
+                    BulkOrderResult rejected = read(parser, token, index, chunk);
+                    if (rejected != null) {
+                        results.add(rejected);
+                    }
+                    index++;
+                    if (chunk.size() >= properties.bulkOrdersChunkSize()) {
+                        results.addAll(process(userName, chunk));
+                        chunk.clear();
+                    }
+                }
+                if (parser.nextToken() != null) {
+                    throw new JsonParseException(parser, "Unexpected content after bulk orders array");
+                }
+            } catch (JsonParseException e) {
+                // the rest of the payload cannot be read; orders already read are still created
+                // and reported, so the caller knows exactly what was committed
+                results.add(BulkOrderResult.rejected(
+                        index,
+                        "Malformed bulk orders payload: " + e.getOriginalMessage() + ", later orders were not read"));
+            }
+        }
+        results.addAll(process(userName, chunk));
+        sorted(results);
+
+        int created = (int)
+                results.stream().filter(result -> result.orderNumber() != null).count();
+        log.info("Bulk created {} orders for user {}, rejected {}", created, userName, results.size() - created);
+        return new BulkCreateOrdersResponse(created, results.size() - created, results);
+    }
+
+    /**
+     * Reads the array element at the parser's current token into the chunk, or returns why it was
+     * rejected. An element that is not an object, or does not bind to an order (e.g. a price that is
+     * not a number), is skipped so that the elements after it are still read.
+     */
+    private BulkOrderResult read(JsonParser parser, JsonToken token, int index, List<IndexedRequest> chunk)
+            throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return BulkOrderResult.rejected(index, "Order must be a JSON object");
+        }
+        JsonNode order = parser.readValueAsTree();
+        try {
+            chunk.add(new IndexedRequest(index, objectMapper.treeToValue(order, CreateOrderRequest.class)));
+            return null;
+        } catch (JsonMappingException e) {
+            return BulkOrderResult.rejected(index, "Invalid order: " + e.getOriginalMessage());
+        }
+    }
+
+    private List<BulkOrderResult> process(String userName, List<IndexedRequest> chunk) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        List<BulkOrderResult> results = new ArrayList<>(chunk.size());
+        List<IndexedRequest> valid = new ArrayList<>(chunk.size());
+        for (IndexedRequest indexed : chunk) {
+            Set<ConstraintViolation<CreateOrderRequest>> violations = validator.validate(indexed.request());
+            if (violations.isEmpty()) {
+                valid.add(indexed);
+            } else {
+                results.add(BulkOrderResult.rejected(indexed.index(), describe(violations)));
+            }
+        }
+
+        Map<String, Product> products;
+        try {
+            products = valid.isEmpty()
+                    ? Map.of()
+                    : orderValidator.findProducts(
+                            valid.stream().map(IndexedRequest::request).toList());
+        } catch (InvalidOrderException | CatalogServiceUnavailableException e) {
+            valid.forEach(indexed -> results.add(BulkOrderResult.rejected(indexed.index(), e.getMessage())));
+            return sorted(results);
+        }
+
+        List<IndexedRequest> accepted = new ArrayList<>(valid.size());
+        for (IndexedRequest indexed : valid) {
+            Optional<String> violation = orderValidator.findViolation(indexed.request(), products);
+            if (violation.isPresent()) {
+                results.add(BulkOrderResult.rejected(indexed.index(), violation.get()));
+            } else {
+                accepted.add(indexed);
+            }
+        }
+
+        List<String> orderNumbers = persist(userName, accepted);
+        for (int i = 0; i < accepted.size(); i++) {
+            results.add(BulkOrderResult.created(accepted.get(i).index(), orderNumbers.get(i)));
+        }
+        return sorted(results);
+    }
+
+    private List<String> persist(String userName, List<IndexedRequest> accepted) {
+        if (accepted.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            List<OrderEntity> orders = accepted.stream()
+                    .map(indexed -> {
+                        OrderEntity order = OrderMapper.convertToEntity(indexed.request());
+                        order.setUserName(userName);
+                        return order;
+                    })
+                    .toList();
+            orderRepository.saveAll(orders);
+            orders.forEach(order -> orderEventService.save(OrderEventMapper.buildOrderCreatedEvent(order)));
+            return orders.stream().map(OrderEntity::getOrderNumber).toList();
+        });
+    }
+
+    private static String describe(Set<ConstraintViolation<CreateOrderRequest>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static List<BulkOrderResult> sorted(List<BulkOrderResult> results) {
+        results.sort(Comparator.comparingInt(BulkOrderResult::index));
+        return results;
+    }
+
+    private record IndexedRequest(int index, CreateOrderRequest request) {}
+}
@@ -0,0 +1,273 @@
+package com.js.bookstore.orders.domain;
+
+import com.js.bookstore.orders.domain.models.Address;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Immutable, precomputed form of the delivery rules. Countries and states are looked up in
+ * case-insensitive open-addressing tables and zip codes by binary search over merged numeric
+ * ranges, so evaluating an order does not allocate. Order values are summed in double and only
+ * re-summed exactly in BigDecimal when the sum is too close to a maximum to decide.
+ */
+final class CompiledDeliveryRules {
+    private static final Area[] NO_AREAS = new Area[0];
+
+    private final CaseInsensitiveTable<Area[]> areasByCountry;
+    private final int ruleCount;
+
+    private CompiledDeliveryRules(CaseInsensitiveTable<Area[]> areasByCountry, int ruleCount) {
+        this.areasByCountry = areasByCountry;
+        this.ruleCount = ruleCount;
+    }
+
+    static CompiledDeliveryRules compile(List<DeliveryRuleDefinition> definitions) {
+        Map<String, List<Area>> areas = new LinkedHashMap<>();
+        for (int i = 0; i < definitions.size(); i++) {
+            DeliveryRuleDefinition definition = definitions.get(i);
+            if (definition.country() == null || definition.country().isBlank()) {
+                throw new IllegalArgumentException("Delivery rule " + i + " has no country");
+            }
+            // grouped the way the table looks countries up, so "India" and "INDIA" share their areas
+            areas.computeIfAbsent(definition.country().trim().toUpperCase(Locale.ROOT), country -> new ArrayList<>())
+                    .add(Area.compile(i, definition));
+        }
+        Map<String, Area[]> table = new LinkedHashMap<>();
+        areas.forEach((country, countryAreas) -> table.put(country, countryAreas.toArray(NO_AREAS)));
+        return new CompiledDeliveryRules(new CaseInsensitiveTable<>(table), definitions.size());
+    }
+
+    int ruleCount() {
+        return ruleCount;
+    }
+
+    boolean canBeDelivered(Address address, Collection<OrderItemEntity> items) {
+        Area[] areas = areasByCountry.get(address.country());
+        if (areas == null) {
+            return false;
+        }
+        long zipCode = Area.parseZipCode(address.zipCode());
+        for (Area area : areas) {
+            if (area.matches(address.state(), zipCode) && area.accepts(items)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Area {
+        private static final long NOT_NUMERIC = -1;
+
+        private final CaseInsensitiveTable<Boolean> states;
+        private final long[] zipStarts;
+        private final long[] zipEnds;
+        private final Set<String> excludedProducts;
+        private final BigDecimal maxOrderValue;
+
+        private Area(
+                CaseInsensitiveTable<Boolean> states,
+                long[] zipStarts,
+                long[] zipEnds,
+                Set<String> excludedProducts,
+                BigDecimal maxOrderValue) {
+            this.states = states;
+            this.zipStarts = zipStarts;
+            this.zipEnds = zipEnds;
+            this.excludedProducts = excludedProducts;
+            this.maxOrderValue = maxOrderValue;
+        }
+
+        static Area compile(int index, DeliveryRuleDefinition definition) {
+            CaseInsensitiveTable<Boolean> states = null;
+            if (definition.states() != null && !definition.states().isEmpty()) {
+                Map<String, Boolean> entries = new LinkedHashMap<>();
+                definition.states().forEach(state -> entries.put(state.trim(), Boolean.TRUE));
+                states = new CaseInsensitiveTable<>(entries);
+            }
+
+            long[][] ranges = null;
+            if (definition.zipCodes() != null && !definition.zipCodes().isEmpty()) {
+                ranges = mergeRanges(index, definition.zipCodes());
+            }
+
+            Set<String> excludedProducts =
+                    definition.excludedProducts() == null ? Set.of() : Set.copyOf(definition.excludedProducts());
+            return new Area(
+                    states,
+                    ranges == null ? null : ranges[0],
+                    ranges == null ? null : ranges[1],
+                    excludedProducts,
+                    definition.maxOrderValue());
+        }
+
+        boolean matches(String state, long zipCode) {
+            if (states != null && states.get(state) == null) {
+                return false;
+            }
+            return zipStarts == null || containsZipCode(zipCode);
+        }
+
+        boolean accepts(Collection<OrderItemEntity> items) {
+            if (excludedProducts.isEmpty() && maxOrderValue == null) {
+                return true;
+            }
+            double orderValue = 0;
+            if (items instanceof List<OrderItemEntity> list && items instanceof RandomAccess) {
+                // indexed access avoids allocating an iterator per order
+                for (int i = 0; i < list.size(); i++) {
+                    OrderItemEntity item = list.get(i);
+                    if (excludedProducts.contains(item.getCode())) {
+                        return false;
+                    }
+                    orderValue += item.getPrice().doubleValue() * item.getQuantity();
+                }
+            } else {
+                for (OrderItemEntity item : items) {
+                    if (excludedProducts.contains(item.getCode())) {
+                        return false;
+                    }
+                    orderValue += item.getPrice().doubleValue() * item.getQuantity();
+                }
+            }
+            if (maxOrderValue == null) {
+                return true;
+            }
+            double max = maxOrderValue.doubleValue();
+            // rounding in the double sum is many orders of magnitude below this margin
+            if (Math.abs(orderValue - max) > Math.max(1.0, Math.abs(max)) * 1e-9) {
+                return orderValue < max;
+            }
+            return exactOrderValue(items).compareTo(maxOrderValue) <= 0;
+        }
+
+        private static BigDecimal exactOrderValue(Collection<OrderItemEntity> items) {
+            BigDecimal orderValue = BigDecimal.ZERO;
+            for (OrderItemEntity item : items) {
+                orderValue = orderValue.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+            return orderValue;
+        }
+
+        private boolean containsZipCode(long zipCode) {
+            if (zipCode == NOT_NUMERIC) {
+                return false;
+            }
+            int i = Arrays.binarySearch(zipStarts, zipCode);
+            if (i >= 0) {
+                return true;
+            }
+            int range = -i - 2;
+            return range >= 0 && zipCode <= zipEnds[range];
+        }
+
+        static long parseZipCode(String zipCode) {
+            if (zipCode == null || zipCode.isEmpty()) {
+                return NOT_NUMERIC;
+            }
+            long value = 0;
+            int digits = 0;
+            for (int i = 0; i < zipCode.length(); i++) {
+                char c = zipCode.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (++digits > 18) {
+                        return NOT_NUMERIC;
+                    }
+                    value = value * 10 + (c - '0');
+                } else if (c != ' ') {
+                    return NOT_NUMERIC;
+                }
+            }
+            return digits == 0 ? NOT_NUMERIC : value;
+        }
+
+        private static long[][] mergeRanges(int index, List<String> zipCodes) {
+            List<long[]> ranges = new ArrayList<>();
+            for (String zipCode : zipCodes) {
+                String[] bounds = zipCode.split("-", 2);
+                long start = parseZipCode(bounds[0].trim());
+                long end = bounds.length == 2 ? parseZipCode(bounds[1].trim()) : start;
+                if (start == NOT_NUMERIC || end == NOT_NUMERIC || end < start) {
+                    throw new IllegalArgumentException(
+                            "Delivery rule " + index + " has an invalid zip code range: " + zipCode);
+                }
+                ranges.add(new long[] {start, end});
+            }
+            ranges.sort(Comparator.comparingLong(range -> range[0]));
+
+            List<long[]> merged = new ArrayList<>();
+            for (long[] range : ranges) {
+                long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && range[0] <= last[1] + 1) {
+                    last[1] = Math.max(last[1], range[1]);
+                } else {
+                    merged.add(range.clone());
+                }
+            }
+            long[] starts = new long[merged.size()];
+            long[] ends = new long[merged.size()];
+            for (int i = 0; i < merged.size(); i++) {
+                starts[i] = merged.get(i)[0];
+                ends[i] = merged.get(i)[1];
+            }
+            return new long[][] {starts, ends};
+        }
+    }
+
+    /**
+     * Read-only open-addressing hash table with case-insensitive String keys; lookups hash the
+     * characters upper-cased in place instead of allocating an upper-cased copy of the key.
+     */
+    private static final class CaseInsensitiveTable<V> {
+        private final String[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        CaseInsensitiveTable(Map<String, V> entries) {
+            int capacity = Integer.highestOneBit(Math.max(2, entries.size() * 2 - 1)) << 1;
+            this.keys = new String[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+            entries.forEach((key, value) -> {
+                int i = hash(key) & mask;
+                while (keys[i] != null && !keys[i].equalsIgnoreCase(key)) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = value;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(String key) {
+            if (key == null) {
+                return null;
+            }
+            int i = hash(key) & mask;
+            String candidate;
+            while ((candidate = keys[i]) != null) {
+                if (candidate.equalsIgnoreCase(key)) {
+                    return (V) values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int hash(String key) {
+            int h = 0;
+            for (int i = 0; i < key.length(); i++) {
+                h = 31 * h + Character.toUpperCase(key.charAt(i));
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
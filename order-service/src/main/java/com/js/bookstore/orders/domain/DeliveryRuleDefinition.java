@@ -0,0 +1,21 @@
+package com.js.bookstore.orders.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One delivery area as read from the rules file. An order can be delivered when at least one rule
+ * matches its address (country, and state and zip code when listed), none of its items is excluded
+ * by that rule and its value does not exceed the rule's maximum.
+ *
+ * @param zipCodes single numeric zip codes ("201309") or inclusive ranges ("201000-201999")
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record DeliveryRuleDefinition(
+        String country,
+        List<String> states,
+        List<String> zipCodes,
+        Set<String> excludedProducts,
+        BigDecimal maxOrderValue) {}
@@ -0,0 +1,73 @@
+package com.js.bookstore.orders.domain;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.js.bookstore.orders.ApplicationProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivery eligibility rules loaded from {@code orders.delivery-rules-location}. The rules are
+ * compiled once per (re)load and swapped in atomically, so a reload never affects orders that are
+ * being evaluated and a broken rules file keeps the previous rules in place.
+ */
+@Component
+public class DeliveryRules {
+    private static final Logger log = LoggerFactory.getLogger(DeliveryRules.class);
+    private static final TypeReference<List<DeliveryRuleDefinition>> DEFINITIONS = new TypeReference<>() {};
+
+    private final Resource location;
+    private final ObjectMapper objectMapper;
+
+    private volatile CompiledDeliveryRules rules;
+    private volatile long lastModified;
+
+    DeliveryRules(ApplicationProperties properties, ResourceLoader resourceLoader, ObjectMapper objectMapper) {
+        this.location = resourceLoader.getResource(properties.deliveryRulesLocation());
+        this.objectMapper = objectMapper;
+        this.rules = load();
+    }
+
+    boolean canBeDelivered(OrderEntity order) {
+        return rules.canBeDelivered(order.getDeliveryAddress(), order.getItems());
+    }
+
+    public void reloadIfModified() {
+        if (lastModified(location) == lastModified) {
+            return;
+        }
+        try {
+            rules = load();
+        } catch (RuntimeException e) {
+            log.error("Failed to reload delivery rules from {}, keeping the previous rules", location, e);
+        }
+    }
+
+    private CompiledDeliveryRules load() {
+        long modified = lastModified(location);
+        try (InputStream in = location.getInputStream()) {
+            CompiledDeliveryRules compiled = CompiledDeliveryRules.compile(objectMapper.readValue(in, DEFINITIONS));
+            lastModified = modified;
+            log.info("Loaded {} delivery rules from {}", compiled.ruleCount(), location);
+            return compiled;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read delivery rules from " + location, e);
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // e.g. resources inside the application jar, which cannot change anyway
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.js.bookstore.orders.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys")
+class IdempotencyKeyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_key_id_generator")
+    @SequenceGenerator(name = "idempotency_key_id_generator", sequenceName = "idempotency_key_id_seq")
+    private Long id;
+
+    @Column(nullable = false)
+    private String userName;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String requestHash;
+
+    @Convert(converter = OrderNumberConverter.class)
+    private String orderNumber;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
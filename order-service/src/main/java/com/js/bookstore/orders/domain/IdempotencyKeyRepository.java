@@ -0,0 +1,39 @@
+package com.js.bookstore.orders.domain;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, Long> {
+
+    /**
+     * Returns 1 if the key was claimed. A concurrent claim of the same key waits on the row lock
+     * until the claiming transaction finishes and then returns 0; other keys are not blocked.
+     */
+    @Modifying
+    @Query(
+            value =
+                    """
+            INSERT INTO idempotency_keys (user_name, idempotency_key, request_hash, created_at)
+            VALUES (:userName, :idempotencyKey, :requestHash, :createdAt)
+            ON CONFLICT (user_name, idempotency_key) DO NOTHING
+            """,
+            nativeQuery = true)
+    int claim(String userName, String idempotencyKey, String requestHash, LocalDateTime createdAt);
+
+    Optional<IdempotencyKeyEntity> findByUserNameAndIdempotencyKey(String userName, String idempotencyKey);
+
+    @Modifying
+    @Query(
+            """
+            UPDATE IdempotencyKeyEntity k SET k.orderNumber = :orderNumber
+            WHERE k.userName = :userName AND k.idempotencyKey = :idempotencyKey
+            """)
+    void complete(String userName, String idempotencyKey, String orderNumber);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKeyEntity k WHERE k.createdAt < :createdBefore")
+    int deleteByCreatedAtBefore(LocalDateTime createdBefore);
+}
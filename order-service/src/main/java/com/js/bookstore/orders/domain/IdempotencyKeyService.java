@@ -0,0 +1,106 @@
+package com.js.bookstore.orders.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.js.bookstore.orders.ApplicationProperties;
+import com.js.bookstore.orders.domain.models.Address;
+import com.js.bookstore.orders.domain.models.CreateOrderRequest;
+import com.js.bookstore.orders.domain.models.CreateOrderResponse;
+import com.js.bookstore.orders.domain.models.Customer;
+import com.js.bookstore.orders.domain.models.OrderItem;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+public class IdempotencyKeyService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Comparator<CanonicalItem> ITEM_ORDER = Comparator.comparing(CanonicalItem::code)
+            .thenComparing(CanonicalItem::name)
+            .thenComparing(CanonicalItem::price)
+            .thenComparing(CanonicalItem::quantity);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationProperties properties;
+
+    IdempotencyKeyService(
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            ObjectMapper objectMapper,
+            ApplicationProperties properties) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Claims the key for the current transaction, or returns the response stored for an earlier
+     * request with the same key.
+     */
+    Optional<CreateOrderResponse> claim(String userName, String idempotencyKey, CreateOrderRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidOrderException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request);
+        if (idempotencyKeyRepository.claim(userName, idempotencyKey, requestHash, LocalDateTime.now()) == 1) {
+            return Optional.empty();
+        }
+        IdempotencyKeyEntity existing = idempotencyKeyRepository
+                .findByUserNameAndIdempotencyKey(userName, idempotencyKey)
+                .orElseThrow(() -> new IllegalStateException("Idempotency-Key " + idempotencyKey + " vanished"));
+        if (!existing.getRequestHash().equals(requestHash) || existing.getOrderNumber() == null) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        log.info("Replaying order {} for Idempotency-Key {}", existing.getOrderNumber(), idempotencyKey);
+        return Optional.of(new CreateOrderResponse(existing.getOrderNumber()));
+    }
+
+    void complete(String userName, String idempotencyKey, CreateOrderResponse response) {
+        idempotencyKeyRepository.complete(userName, idempotencyKey, response.orderNumber());
+    }
+
+    public void purgeExpiredKeys() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(properties.idempotencyKeyTtl());
+        int deleted = idempotencyKeyRepository.deleteByCreatedAtBefore(createdBefore);
+        log.info("Purged {} idempotency keys created before {}", deleted, createdBefore);
+    }
+
+    private String fingerprint(CreateOrderRequest request) {
+        // items are a Set, so sort them to get the same bytes for the same request
+        var canonical = new CanonicalRequest(
+                request.items().stream()
+                        .map(CanonicalItem::of)
+                        .sorted(ITEM_ORDER)
+                        .toList(),
+                request.customer(),
+                request.deliveryAddress());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(canonical));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to fingerprint order request", e);
+        }
+    }
+
+    private record CanonicalRequest(List<CanonicalItem> items, Customer customer, Address deliveryAddress) {}
+
+    // the price is written without trailing zeros, so 25.50 and 25.5 are the same request
+    private record CanonicalItem(String code, String name, String price, Integer quantity) {
+        static CanonicalItem of(OrderItem item) {
+            String price = item.price() == null
+                    ? null
+                    : item.price().stripTrailingZeros().toPlainString();
+            return new CanonicalItem(item.code(), item.name(), price, item.quantity());
+        }
+    }
+}
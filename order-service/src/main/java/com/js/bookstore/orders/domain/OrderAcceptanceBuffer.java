@@ -0,0 +1,251 @@
+package com.js.bookstore.orders.domain;
+
+import com.js.bookstore.orders.ApplicationProperties;
+import com.js.bookstore.orders.clients.catalog.CatalogServiceUnavailableException;
+import com.js.bookstore.orders.clients.catalog.Product;
+import com.js.bookstore.orders.domain.models.CreateOrderRequest;
+import com.js.bookstore.orders.domain.models.CreateOrderResponse;
+import com.js.bookstore.orders.domain.models.OrderStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Opt-in asynchronous order acceptance. Requests are queued in a bounded in-memory buffer and a
+ * single writer thread drains it, validating and committing many orders per transaction (group
+ * commit). Orders that fail catalog validation are stored as CANCELLED with the reason as comment.
+ * While catalog-service is unavailable the batch stays pending and is retried with backoff; a batch
+ * that keeps failing for any other reason is stored as ERROR after {@value #MAX_ATTEMPTS} attempts so
+ * that it does not block the writer. Accepted orders that are still buffered are lost if the process
+ * dies.
+ */
+@Component
+@ConditionalOnProperty(prefix = "orders", name = "async-acceptance-enabled", havingValue = "true")
+public class OrderAcceptanceBuffer implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(OrderAcceptanceBuffer.class);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+    static final int MAX_ATTEMPTS = 5;
+
+    private final OrderRepository orderRepository;
+    private final OrderEventService orderEventService;
+    private final OrderValidator orderValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingOrder> buffer;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    OrderAcceptanceBuffer(
+            OrderRepository orderRepository,
+            OrderEventService orderEventService,
+            OrderValidator orderValidator,
+            PlatformTransactionManager transactionManager,
+            ApplicationProperties properties,
+            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderEventService = orderEventService;
+        this.orderValidator = orderValidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(properties.asyncAcceptanceBufferSize());
+        this.maxBatchSize = properties.asyncAcceptanceMaxBatchSize();
+        meterRegistry.gauge("orders.acceptance.queue.depth", buffer, BlockingQueue::size);
+        this.batchSizes = meterRegistry.summary("orders.acceptance.batch.size");
+        this.commitTimer = meterRegistry.timer("orders.acceptance.commit");
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CreateOrderResponse accept(String userName, CreateOrderRequest request) {
+        if (!running) {
+            throw new OrderAcceptanceBufferFullException();
+        }
+        String orderNumber = OrderNumbers.next();
+        if (!buffer.offer(new PendingOrder(userName, orderNumber, request))) {
+            throw new OrderAcceptanceBufferFullException();
+        }
+        return new CreateOrderResponse(orderNumber);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("order-acceptance-writer").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stop after the web server so that no order is accepted once the buffer has been drained; the
+    // web server stops in phase DEFAULT_PHASE - 2048, and lower phases stop later
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        int attempts = 0;
+        Duration retryDelay = RETRY_DELAY;
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    PendingOrder first = buffer.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    buffer.drainTo(batch, maxBatchSize - 1);
+                }
+                write(batch);
+                batch.clear();
+                attempts = 0;
+                retryDelay = RETRY_DELAY;
+            } catch (InterruptedException e) {
+                // stop() interrupts; the loop drains what is left before exiting
+                Thread.interrupted();
+            } catch (CatalogUnavailableException e) {
+                if (!running) {
+                    divert(batch, "catalog-service unavailable on shutdown");
+                    batch.clear();
+                    continue;
+                }
+                log.warn(
+                        "catalog-service unavailable, keeping {} accepted orders pending for {}: {}",
+                        batch.size(),
+                        retryDelay,
+                        e.getMessage());
+                sleep(retryDelay);
+                retryDelay = retryDelay.multipliedBy(2).compareTo(MAX_RETRY_DELAY) > 0
+                        ? MAX_RETRY_DELAY
+                        : retryDelay.multipliedBy(2);
+            } catch (RuntimeException e) {
+                attempts++;
+                log.error("Failed to write {} accepted orders (attempt {})", batch.size(), attempts, e);
+                if (attempts >= MAX_ATTEMPTS || !running) {
+                    divert(batch, "Failed to write accepted order: " + e.getMessage());
+                    batch.clear();
+                    attempts = 0;
+                    continue;
+                }
+                sleep(RETRY_DELAY);
+            }
+        }
+    }
+
+    private void write(List<PendingOrder> batch) {
+        Map<String, Product> products;
+        try {
+            products = orderValidator.findProducts(
+                    batch.stream().map(PendingOrder::request).toList());
+        } catch (CatalogServiceUnavailableException | InvalidOrderException e) {
+            // the lookup itself failed or timed out: nothing is known about the orders yet
+            throw new CatalogUnavailableException(e);
+        }
+
+        commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            List<OrderEntity> orders = new ArrayList<>(batch.size());
+            List<String> violations = new ArrayList<>(batch.size());
+            for (PendingOrder pending : batch) {
+                OrderEntity order = OrderMapper.convertToEntity(pending.request());
+                order.setOrderNumber(pending.orderNumber());
+                order.setUserName(pending.userName());
+                Optional<String> violation = orderValidator.findViolation(pending.request(), products);
+                if (violation.isPresent()) {
+                    order.setStatus(OrderStatus.CANCELLED);
+                    order.setComments(violation.get());
+                }
+                orders.add(order);
+                violations.add(violation.orElse(null));
+            }
+            orderRepository.saveAll(orders);
+            for (int i = 0; i < orders.size(); i++) {
+                OrderEntity order = orders.get(i);
+                if (violations.get(i) == null) {
+                    orderEventService.save(OrderEventMapper.buildOrderCreatedEvent(order));
+                } else {
+                    orderEventService.save(OrderEventMapper.buildOrderCancelledEvent(order, violations.get(i)));
+                }
+            }
+        }));
+        batchSizes.record(batch.size());
+        log.debug("Committed {} accepted orders", batch.size());
+    }
+
+    /**
+     * Stores the orders of a batch that cannot be written as ERROR, each in its own transaction so
+     * that one bad order does not take the others with it. Orders that cannot even be stored that way
+     * are only logged.
+     */
+    private void divert(List<PendingOrder> batch, String reason) {
+        log.error("Storing {} accepted orders as {}: {}", batch.size(), OrderStatus.ERROR, reason);
+        // a lookup interrupted by stop() leaves the flag set, which would fail the connection checkout
+        Thread.interrupted();
+        for (PendingOrder pending : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    OrderEntity order = OrderMapper.convertToEntity(pending.request());
+                    order.setOrderNumber(pending.orderNumber());
+                    order.setUserName(pending.userName());
+                    order.setStatus(OrderStatus.ERROR);
+                    order.setComments(reason);
+                    orderRepository.save(order);
+                    orderEventService.save(OrderEventMapper.buildOrderErrorEvent(order, reason));
+                });
+                meterRegistry.counter("orders.acceptance.diverted").increment();
+            } catch (RuntimeException e) {
+                log.error("Dropping accepted order {} for user {}", pending.orderNumber(), pending.userName(), e);
+                meterRegistry.counter("orders.acceptance.dropped").increment();
+            }
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            // stop() interrupts; the loop checks running and writes or diverts what is left
+        }
+    }
+
+    private static class CatalogUnavailableException extends RuntimeException {
+        CatalogUnavailableException(RuntimeException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    private record PendingOrder(String userName, String orderNumber, CreateOrderRequest request) {}
+}
@@ -0,0 +1,7 @@
+package com.js.bookstore.orders.domain;
+
+public class OrderAcceptanceBufferFullException extends RuntimeException {
+    public OrderAcceptanceBufferFullException() {
+        super("Too many orders are waiting to be written, please retry shortly");
+    }
+}
@@ -16,6 +16,7 @@ class OrderEntity {
     private Long id;
 
     @Column(nullable = false)
+    @Convert(converter = OrderNumberConverter.class)
     private String orderNumber;
 
     @Column(name = "username", nullable = false)
@@ -14,6 +14,7 @@ public class OrderEventEntity {
     private Long id;
 
     @Column(nullable = false)
+    @Convert(converter = OrderNumberConverter.class)
     private String orderNumber;
 
     @Column(nullable = false, unique = true)
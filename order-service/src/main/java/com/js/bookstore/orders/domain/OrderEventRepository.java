@@ -1,5 +1,10 @@
 package com.js.bookstore.orders.domain;
 
+import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-interface OrderEventRepository extends JpaRepository<OrderEventEntity, Long> {}
+interface OrderEventRepository extends JpaRepository<OrderEventEntity, Long> {
+
+    List<OrderEventEntity> findAllByOrderByCreatedAtAscIdAsc(Limit limit);
+}
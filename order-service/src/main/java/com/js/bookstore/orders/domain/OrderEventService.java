@@ -6,76 +6,128 @@ import com.js.bookstore.orders.domain.models.*;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Transactional
 public class OrderEventService {
     private static final Logger log = LoggerFactory.getLogger(OrderEventService.class);
+    private static final int PUBLISH_BATCH_SIZE = 500;
 
     private final OrderEventRepository orderEventRepository;
     private final OrderEventPublisher orderEventPublisher;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     OrderEventService(
             OrderEventRepository orderEventRepository,
             OrderEventPublisher orderEventPublisher,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher applicationEventPublisher,
+            PlatformTransactionManager transactionManager) {
         this.orderEventRepository = orderEventRepository;
         this.orderEventPublisher = orderEventPublisher;
         this.objectMapper = objectMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     void save(OrderCreatedEvent event) {
+        this.orderEventRepository.save(toEntity(event));
+        // lets the order processor pick the order up as soon as the transaction commits
+        this.applicationEventPublisher.publishEvent(event);
+    }
+
+    OrderEventEntity toEntity(OrderCreatedEvent event) {
         OrderEventEntity orderEvent = new OrderEventEntity();
         orderEvent.setEventId(event.eventId());
         orderEvent.setEventType(OrderEventType.ORDER_CREATED);
         orderEvent.setOrderNumber(event.orderNumber());
         orderEvent.setCreatedAt(event.createdAt());
         orderEvent.setPayload(toJsonPayload(event));
-        this.orderEventRepository.save(orderEvent);
+        return orderEvent;
     }
 
     void save(OrderDeliveredEvent event) {
+        this.orderEventRepository.save(toEntity(event));
+    }
+
+    OrderEventEntity toEntity(OrderDeliveredEvent event) {
         OrderEventEntity orderEvent = new OrderEventEntity();
         orderEvent.setEventId(event.eventId());
         orderEvent.setEventType(OrderEventType.ORDER_DELIVERED);
         orderEvent.setOrderNumber(event.orderNumber());
         orderEvent.setCreatedAt(event.createdAt());
         orderEvent.setPayload(toJsonPayload(event));
-        this.orderEventRepository.save(orderEvent);
+        return orderEvent;
     }
 
     void save(OrderCancelledEvent event) {
+        this.orderEventRepository.save(toEntity(event));
+    }
+
+    OrderEventEntity toEntity(OrderCancelledEvent event) {
         OrderEventEntity orderEvent = new OrderEventEntity();
         orderEvent.setEventId(event.eventId());
         orderEvent.setEventType(OrderEventType.ORDER_CANCELLED);
         orderEvent.setOrderNumber(event.orderNumber());
         orderEvent.setCreatedAt(event.createdAt());
         orderEvent.setPayload(toJsonPayload(event));
-        this.orderEventRepository.save(orderEvent);
+        return orderEvent;
     }
 
     void save(OrderErrorEvent event) {
+        this.orderEventRepository.save(toEntity(event));
+    }
+
+    OrderEventEntity toEntity(OrderErrorEvent event) {
         OrderEventEntity orderEvent = new OrderEventEntity();
         orderEvent.setEventId(event.eventId());
         orderEvent.setEventType(OrderEventType.ORDER_PROCESSING_FAILED);
         orderEvent.setOrderNumber(event.orderNumber());
         orderEvent.setCreatedAt(event.createdAt());
         orderEvent.setPayload(toJsonPayload(event));
-        this.orderEventRepository.save(orderEvent);
+        return orderEvent;
+    }
+
+    /**
+     * Stores the events without flushing in between, so Hibernate writes them as batched inserts.
+     */
+    void saveAll(List<OrderEventEntity> events) {
+        this.orderEventRepository.saveAll(events);
     }
 
+    /**
+     * Publishes the outbox in batches, each deleted in its own transaction, so a failure only rolls
+     * back the current batch and no transaction stays open for the whole drain.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void publishOrderEvents() {
-        Sort sort = Sort.by("createdAt").ascending();
-        List<OrderEventEntity> events = orderEventRepository.findAll(sort);
+        // reads the oldest events in batches over the created_at index instead of sorting the table;
+        // published events are deleted, so every batch starts at the head of the outbox
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> publishOrderEventsBatch());
+        } while (published != null && published == PUBLISH_BATCH_SIZE);
+    }
+
+    private int publishOrderEventsBatch() {
+        List<OrderEventEntity> events =
+                orderEventRepository.findAllByOrderByCreatedAtAscIdAsc(Limit.of(PUBLISH_BATCH_SIZE));
         log.info("Found {} Order Events to be published", events.size());
         for (OrderEventEntity event : events) {
             this.publishEvent(event);
             orderEventRepository.delete(event);
         }
+        orderEventRepository.flush();
+        return events.size();
     }
 
     private void publishEvent(OrderEventEntity event) {
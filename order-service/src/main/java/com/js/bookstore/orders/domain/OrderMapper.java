@@ -6,13 +6,12 @@ import com.js.bookstore.orders.domain.models.OrderItem;
 import com.js.bookstore.orders.domain.models.OrderStatus;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 class OrderMapper {
     static OrderEntity convertToEntity(CreateOrderRequest request) {
         OrderEntity newOrder = new OrderEntity();
-        newOrder.setOrderNumber(UUID.randomUUID().toString());
+        newOrder.setOrderNumber(OrderNumbers.next());
         newOrder.setStatus(OrderStatus.NEW);
         newOrder.setCustomer(request.customer());
         newOrder.setDeliveryAddress(request.deliveryAddress());
@@ -0,0 +1,22 @@
+package com.js.bookstore.orders.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.util.UUID;
+
+/**
+ * Order numbers are strings in the API and in events but are stored in native uuid columns.
+ */
+@Converter
+class OrderNumberConverter implements AttributeConverter<String, UUID> {
+
+    @Override
+    public UUID convertToDatabaseColumn(String orderNumber) {
+        return orderNumber == null ? null : UUID.fromString(orderNumber);
+    }
+
+    @Override
+    public String convertToEntityAttribute(UUID orderNumber) {
+        return orderNumber == null ? null : orderNumber.toString();
+    }
+}
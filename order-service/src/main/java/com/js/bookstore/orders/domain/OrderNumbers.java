@@ -0,0 +1,35 @@
+package com.js.bookstore.orders.domain;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates order numbers as UUIDv7 (RFC 9562): a 48 bit millisecond timestamp followed by random
+ * bits, so new orders land at the right-hand edge of the order_number index instead of random pages.
+ */
+final class OrderNumbers {
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+
+    private OrderNumbers() {}
+
+    static String next() {
+        return next(System.currentTimeMillis()).toString();
+    }
+
+    static UUID next(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (epochMillis << 16) | VERSION_7 | (random.nextLong() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | VARIANT_RFC_4122;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    static boolean isValid(String orderNumber) {
+        try {
+            UUID.fromString(orderNumber);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.js.bookstore.orders.domain;
+
+import com.js.bookstore.orders.ApplicationProperties;
+import com.js.bookstore.orders.domain.models.OrderCreatedEvent;
+import com.js.bookstore.orders.domain.models.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Processes NEW orders in four stages connected by bounded queues, each with its own threads:
+ * <ol>
+ *   <li>claim: marks a chunk of NEW orders IN_PROCESS under a claim token (FOR UPDATE SKIP LOCKED,
+ *       so replicas claim disjoint chunks)
+ *   <li>load: reads the claimed orders with their items
+ *   <li>decide: evaluates the delivery rules and builds the outbox events
+ *   <li>persist: applies the transitions set-based and writes the outbox events in one transaction
+ * </ol>
+ * A full queue blocks the stage in front of it, so claiming stops when a later stage falls behind.
+ * Claims of orders that never reach the persist stage are returned to NEW on shutdown or, if the
+ * replica dies, by {@link #releaseExpiredClaims()} once they are older than the claim timeout. A
+ * chunk that fails a stage {@value #MAX_STAGE_ATTEMPTS} times is processed order by order, and orders
+ * that still fail are moved to ERROR instead of being claimed again and again.
+ */
+@Component
+public class OrderProcessingPipeline implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(OrderProcessingPipeline.class);
+    static final int MAX_STAGE_ATTEMPTS = 3;
+    private static final Duration STAGE_RETRY_DELAY = Duration.ofMillis(500);
+
+    private final OrderRepository orderRepository;
+    private final OrderEventService orderEventService;
+    private final DeliveryRules deliveryRules;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationProperties properties;
+    private final int chunkSize;
+
+    private final BlockingQueue<ClaimedChunk> claimed;
+    private final BlockingQueue<LoadedChunk> loaded;
+    private final BlockingQueue<DecidedChunk> decided;
+    private final Semaphore signals = new Semaphore(0);
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final Timer processingDelay;
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    OrderProcessingPipeline(
+            OrderRepository orderRepository,
+            OrderEventService orderEventService,
+            DeliveryRules deliveryRules,
+            PlatformTransactionManager transactionManager,
+            ApplicationProperties properties,
+            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderEventService = orderEventService;
+        this.deliveryRules = deliveryRules;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.chunkSize = properties.newOrdersChunkSize();
+        this.claimed = new ArrayBlockingQueue<>(properties.pipelineQueueCapacity());
+        this.loaded = new ArrayBlockingQueue<>(properties.pipelineQueueCapacity());
+        this.decided = new ArrayBlockingQueue<>(properties.pipelineQueueCapacity());
+        queueDepthGauge("load", claimed);
+        queueDepthGauge("decide", loaded);
+        queueDepthGauge("persist", decided);
+        this.processingDelay = Timer.builder("orders.processing.delay")
+                .description("Time from order creation until the order leaves NEW")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Asks the claim stage to claim NEW orders until none are left. Signals that arrive while it is
+     * claiming are collapsed into a single follow-up pass.
+     */
+    public void signal() {
+        if (pending.compareAndSet(false, true)) {
+            signals.release();
+        }
+    }
+
+    public boolean isProcessOnCommit() {
+        return properties.processNewOrdersOnCommit();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void onOrderCreated(OrderCreatedEvent event) {
+        if (isProcessOnCommit()) {
+            signal();
+        }
+    }
+
+    /**
+     * Returns orders claimed longer ago than the claim timeout, e.g. by a replica that died, to NEW.
+     */
+    public int releaseExpiredClaims() {
+        LocalDateTime claimedBefore = LocalDateTime.now().minus(properties.newOrdersClaimTimeout());
+        Integer released = transactionTemplate.execute(status -> orderRepository.releaseClaimsBefore(claimedBefore));
+        if (released != null && released > 0) {
+            log.warn("Released {} orders whose processing claim expired", released);
+        }
+        return released == null ? 0 : released;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        startStage("claim", 1, this::runClaimStage);
+        startStage(
+                "load",
+                properties.pipelineLoadParallelism(),
+                () -> runStage("load", claimed, this::load, this::loadOneByOne, loaded));
+        startStage(
+                "decide",
+                properties.pipelineDecideParallelism(),
+                () -> runStage("decide", loaded, this::decide, this::decideOneByOne, decided));
+        startStage(
+                "persist",
+                properties.pipelinePersistParallelism(),
+                () -> runStage("persist", decided, this::persist, this::persistOneByOne, null));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+            try {
+                thread.join(Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+        releaseQueuedClaims();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void startStage(String stage, int parallelism, Runnable loop) {
+        for (int i = 1; i <= parallelism; i++) {
+            threads.add(Thread.ofPlatform()
+                    .name("order-pipeline-" + stage + "-" + i)
+                    .daemon()
+                    .start(loop));
+        }
+    }
+
+    private void runClaimStage() {
+        Timer timer = stageTimer("claim");
+        while (running) {
+            try {
+                signals.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            pending.set(false);
+            while (running) {
+                ClaimedChunk chunk;
+                try {
+                    chunk = timer.record(this::claim);
+                } catch (RuntimeException e) {
+                    log.error("Failed to claim new orders, retrying on the next signal", e);
+                    break;
+                }
+                if (chunk.ids().isEmpty()) {
+                    break;
+                }
+                if (!offer(claimed, chunk)) {
+                    return;
+                }
+                if (chunk.ids().size() < chunkSize) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies {@code work} to each chunk, retrying a failing chunk up to {@value #MAX_STAGE_ATTEMPTS}
+     * times before handing it to {@code oneByOne}, which isolates and fails the offending orders.
+     */
+    private <I, O> void runStage(
+            String stage,
+            BlockingQueue<I> input,
+            Function<I, O> work,
+            Function<I, O> oneByOne,
+            BlockingQueue<O> output) {
+        Timer timer = stageTimer(stage);
+        while (running) {
+            I chunk;
+            try {
+                chunk = input.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            O result;
+            try {
+                result = timer.record(() -> withRetries(stage, chunk, work, oneByOne));
+            } catch (RuntimeException e) {
+                // the orders stay claimed and are returned to NEW once the claim expires
+                log.error("Order processing stage {} failed", stage, e);
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // stop() interrupted a retry; the orders stay claimed until the claim expires
+                return;
+            }
+            if (output != null && !offer(output, result)) {
+                return;
+            }
+        }
+    }
+
+    private <I, O> O withRetries(String stage, I chunk, Function<I, O> work, Function<I, O> oneByOne) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.apply(chunk);
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_STAGE_ATTEMPTS) {
+                    log.error(
+                            "Order processing stage {} failed for a chunk {} times, processing order by order",
+                            stage,
+                            attempt,
+                            e);
+                    return oneByOne.apply(chunk);
+                }
+                log.warn("Order processing stage {} failed for a chunk (attempt {}), retrying", stage, attempt, e);
+                try {
+                    Thread.sleep(STAGE_RETRY_DELAY);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    private ClaimedChunk claim() {
+        UUID claim = UUID.randomUUID();
+        long claimedAt = System.nanoTime();
+        List<Long> ids = transactionTemplate.execute(status -> orderRepository.claimNewOrders(claim, chunkSize));
+        return new ClaimedChunk(claim, claimedAt, ids == null ? List.of() : ids);
+    }
+
+    private LoadedChunk load(ClaimedChunk chunk) {
+        // one query loads the items of the whole chunk instead of one per order when building events
+        List<OrderEntity> orders =
+                readOnlyTransactionTemplate.execute(status -> orderRepository.findWithItemsByIdIn(chunk.ids()));
+        return new LoadedChunk(chunk.claim(), chunk.claimedAt(), orders);
+    }
+
+    /**
+     * Loads each order on its own. Orders that cannot be loaded are moved to ERROR without an outbox
+     * event, which could only be built from the loaded order.
+     */
+    private LoadedChunk loadOneByOne(ClaimedChunk chunk) {
+        List<OrderEntity> orders = new ArrayList<>();
+        for (Long id : chunk.ids()) {
+            try {
+                orders.addAll(readOnlyTransactionTemplate.execute(
+                        status -> orderRepository.findWithItemsByIdIn(List.of(id))));
+            } catch (RuntimeException e) {
+                log.error("Failed to load order with id {}, moving it to {}", id, OrderStatus.ERROR, e);
+                moveToErrorWithoutEvent(chunk.claim(), id);
+            }
+        }
+        return new LoadedChunk(chunk.claim(), chunk.claimedAt(), orders);
+    }
+
+    private DecidedChunk decide(LoadedChunk chunk) {
+        Map<OrderStatus, List<Transition>> transitions = new EnumMap<>(OrderStatus.class);
+        for (OrderEntity order : chunk.orders()) {
+            Transition transition = decide(order);
+            transitions
+                    .computeIfAbsent(transition.status(), status -> new ArrayList<>())
+                    .add(transition);
+        }
+        return new DecidedChunk(chunk.claim(), chunk.claimedAt(), transitions);
+    }
+
+    /**
+     * Decides each order on its own. Orders whose decision or error event cannot be built are moved
+     * to ERROR without an outbox event.
+     */
+    private DecidedChunk decideOneByOne(LoadedChunk chunk) {
+        Map<OrderStatus, List<Transition>> transitions = new EnumMap<>(OrderStatus.class);
+        for (OrderEntity order : chunk.orders()) {
+            Transition transition;
+            try {
+                transition = decide(order);
+            } catch (RuntimeException e) {
+                log.error("Failed to decide order {}, moving it to {}", order.getOrderNumber(), OrderStatus.ERROR, e);
+                try {
+                    transition = error(order, "Failed to decide processing result: " + e.getMessage());
+                } catch (RuntimeException errorFailure) {
+                    moveToErrorWithoutEvent(chunk.claim(), order.getId());
+                    continue;
+                }
+            }
+            transitions
+                    .computeIfAbsent(transition.status(), status -> new ArrayList<>())
+                    .add(transition);
+        }
+        return new DecidedChunk(chunk.claim(), chunk.claimedAt(), transitions);
+    }
+
+    private Transition decide(OrderEntity order) {
+        try {
+            if (deliveryRules.canBeDelivered(order)) {
+                log.info("OrderNumber: {} can be delivered", order.getOrderNumber());
+                return new Transition(
+                        order,
+                        OrderStatus.DELIVERED,
+                        orderEventService.toEntity(OrderEventMapper.buildOrderDeliveredEvent(order)));
+            }
+            log.info("OrderNumber: {} can't be delivered", order.getOrderNumber());
+            return new Transition(
+                    order,
+                    OrderStatus.CANCELLED,
+                    orderEventService.toEntity(
+                            OrderEventMapper.buildOrderCancelledEvent(order, "Can't deliver to the location")));
+        } catch (RuntimeException e) {
+            log.error("Failed to process Order with orderNumber {}", order.getOrderNumber(), e);
+            return error(order, e.getMessage());
+        }
+    }
+
+    private Transition error(OrderEntity order, String reason) {
+        return new Transition(
+                order,
+                OrderStatus.ERROR,
+                orderEventService.toEntity(OrderEventMapper.buildOrderErrorEvent(order, reason)));
+    }
+
+    private Void persist(DecidedChunk chunk) {
+        recordProcessed(chunk, persist(chunk.claim(), chunk.transitions()));
+        return null;
+    }
+
+    /**
+     * Applies the transitions and writes their outbox events in one transaction and returns the
+     * number of orders that were still held by the claim and therefore transitioned.
+     */
+    private int persist(UUID claim, Map<OrderStatus, List<Transition>> transitions) {
+        Integer processed = transactionTemplate.execute(status -> {
+            List<OrderEventEntity> events = new ArrayList<>();
+            transitions.forEach((orderStatus, group) -> {
+                Long[] ids = group.stream().map(t -> t.order().getId()).toArray(Long[]::new);
+                Set<Long> transitioned =
+                        new HashSet<>(orderRepository.transitionClaimedOrders(ids, orderStatus.name(), claim));
+                recordRows("update", orderStatus, transitioned.size());
+                if (transitioned.size() < ids.length) {
+                    log.info(
+                            "Skipped {} orders whose claim was released before moving to {}",
+                            ids.length - transitioned.size(),
+                            orderStatus);
+                }
+                LocalDateTime now = LocalDateTime.now();
+                group.stream()
+                        .filter(t -> transitioned.contains(t.order().getId()))
+                        .forEach(t -> {
+                            // a rolled-back attempt leaves its sequence value on the entity
+                            t.event().setId(null);
+                            events.add(t.event());
+                            processingDelay.record(Duration.between(t.order().getCreatedAt(), now));
+                        });
+            });
+            orderEventService.saveAll(events);
+            recordRows("insert", null, events.size());
+            return events.size();
+        });
+        return processed == null ? 0 : processed;
+    }
+
+    /**
+     * Isolates the orders that make a chunk fail: each order is persisted on its own and, if that
+     * fails too, moved to ERROR. Orders that cannot even be moved to ERROR stay claimed until the
+     * claim expires.
+     */
+    private Void persistOneByOne(DecidedChunk chunk) {
+        int processed = 0;
+        for (List<Transition> group : chunk.transitions().values()) {
+            for (Transition transition : group) {
+                try {
+                    processed += persist(chunk.claim(), Map.of(transition.status(), List.of(transition)));
+                } catch (RuntimeException e) {
+                    OrderEntity order = transition.order();
+                    log.error(
+                            "Failed to persist order {}, moving it to {}",
+                            order.getOrderNumber(),
+                            OrderStatus.ERROR,
+                            e);
+                    try {
+                        Transition error = error(order, "Failed to persist processing result: " + e.getMessage());
+                        processed += persist(chunk.claim(), Map.of(OrderStatus.ERROR, List.of(error)));
+                    } catch (RuntimeException errorFailure) {
+                        log.error(
+                                "Failed to move order {} to {}",
+                                order.getOrderNumber(),
+                                OrderStatus.ERROR,
+                                errorFailure);
+                    }
+                }
+            }
+        }
+        recordProcessed(chunk, processed);
+        return null;
+    }
+
+    private void moveToErrorWithoutEvent(UUID claim, Long id) {
+        try {
+            List<Long> moved = transactionTemplate.execute(status ->
+                    orderRepository.transitionClaimedOrders(new Long[] {id}, OrderStatus.ERROR.name(), claim));
+            recordRows("update", OrderStatus.ERROR, moved == null ? 0 : moved.size());
+            countProcessed(moved == null ? 0 : moved.size());
+        } catch (RuntimeException e) {
+            // the order stays claimed and is returned to NEW once the claim expires
+            log.error("Failed to move order with id {} to {}", id, OrderStatus.ERROR, e);
+        }
+    }
+
+    private void recordProcessed(DecidedChunk chunk, int processed) {
+        countProcessed(processed);
+        Timer.builder("orders.processing.chunk")
+                .description("Time from claiming a chunk of NEW orders until it is persisted")
+                .tag("worker", Thread.currentThread().getName())
+                .register(meterRegistry)
+                .record(System.nanoTime() - chunk.claimedAt(), TimeUnit.NANOSECONDS);
+    }
+
+    private void countProcessed(int processed) {
+        Counter.builder("orders.processing.orders")
+                .description("NEW orders processed per pipeline worker")
+                .tag("worker", Thread.currentThread().getName())
+                .register(meterRegistry)
+                .increment(processed);
+    }
+
+    private void releaseQueuedClaims() {
+        List<UUID> claims = new ArrayList<>();
+        claimed.forEach(chunk -> claims.add(chunk.claim()));
+        loaded.forEach(chunk -> claims.add(chunk.claim()));
+        decided.forEach(chunk -> claims.add(chunk.claim()));
+        claimed.clear();
+        loaded.clear();
+        decided.clear();
+        if (claims.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> orderRepository.releaseClaims(claims.toArray(UUID[]::new)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to release {} queued order claims, they expire after the claim timeout", claims.size(), e);
+        }
+    }
+
+    private <T> boolean offer(BlockingQueue<T> queue, T chunk) {
+        try {
+            // blocks while the next stage is saturated
+            queue.put(chunk);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("orders.pipeline.stage")
+                .description("Time spent per chunk in an order processing stage")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private void queueDepthGauge(String stage, BlockingQueue<?> queue) {
+        Gauge.builder("orders.pipeline.queue.depth", queue, BlockingQueue::size)
+                .description("Chunks waiting for an order processing stage")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private void recordRows(String statement, OrderStatus status, int rows) {
+        DistributionSummary.builder("orders.processing.statement.rows")
+                .description("Rows written per statement by the order processing pipeline")
+                .baseUnit("rows")
+                .tag("statement", statement)
+                .tag("status", status == null ? "none" : status.name())
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    private record ClaimedChunk(UUID claim, long claimedAt, List<Long> ids) {}
+
+    private record LoadedChunk(UUID claim, long claimedAt, List<OrderEntity> orders) {}
+
+    private record DecidedChunk(UUID claim, long claimedAt, Map<OrderStatus, List<Transition>> transitions) {}
+
+    private record Transition(OrderEntity order, OrderStatus status, OrderEventEntity event) {}
+}
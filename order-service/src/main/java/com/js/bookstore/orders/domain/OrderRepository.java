@@ -1,24 +1,79 @@
 package com.js.bookstore.orders.domain;
 
-import com.js.bookstore.orders.domain.models.OrderStatus;
 import com.js.bookstore.orders.domain.models.OrderSummary;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 interface OrderRepository extends JpaRepository<OrderEntity, Long> {
-    List<OrderEntity> findByStatus(OrderStatus status);
+    /**
+     * Marks the oldest NEW orders as IN_PROCESS under the given claim, skipping rows that other
+     * workers are claiming concurrently, and returns their ids.
+     */
+    @Query(
+            value =
+                    """
+        UPDATE orders SET status = 'IN_PROCESS', claimed_by = :claim, claimed_at = now()
+        WHERE id IN (
+            SELECT id FROM orders
+            WHERE status = 'NEW'
+            ORDER BY created_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED)
+        RETURNING id
+        """,
+            nativeQuery = true)
+    List<Long> claimNewOrders(UUID claim, int limit);
+
+    @Query(
+            """
+        SELECT distinct o
+        FROM OrderEntity o LEFT JOIN FETCH o.items
+        WHERE o.id IN :ids
+        """)
+    List<OrderEntity> findWithItemsByIdIn(List<Long> ids);
 
     Optional<OrderEntity> findByOrderNumber(String orderNumber);
 
-    default void updateOrderStatus(String orderNumber, OrderStatus status) {
-        OrderEntity order = this.findByOrderNumber(orderNumber).orElseThrow();
-        order.setStatus(status);
-        this.saveAndFlush(order);
-    }
+    /**
+     * Moves the given orders to the new status if they are still held by the given claim and
+     * returns the ids of the orders that were actually transitioned.
+     */
+    @Query(
+            value =
+                    """
+        UPDATE orders SET status = :status, updated_at = now(), claimed_by = null, claimed_at = null
+        WHERE id = ANY(:ids) AND status = 'IN_PROCESS' AND claimed_by = :claim
+        RETURNING id
+        """,
+            nativeQuery = true)
+    List<Long> transitionClaimedOrders(Long[] ids, String status, UUID claim);
+
+    @Modifying
+    @Query(
+            value =
+                    """
+        UPDATE orders SET status = 'NEW', claimed_by = null, claimed_at = null
+        WHERE status = 'IN_PROCESS' AND claimed_by = ANY(:claims)
+        """,
+            nativeQuery = true)
+    int releaseClaims(UUID[] claims);
+
+    @Modifying
+    @Query(
+            value =
+                    """
+        UPDATE orders SET status = 'NEW', claimed_by = null, claimed_at = null
+        WHERE status = 'IN_PROCESS' AND claimed_at < :claimedBefore
+        """,
+            nativeQuery = true)
+    int releaseClaimsBefore(LocalDateTime claimedBefore);
 
     @Query(
             """
@@ -13,16 +13,34 @@ import org.springframework.transaction.annotation.Transactional;
 public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
-    private static final List<String> DELIVERY_ALLOWED_COUNTRIES = List.of("INDIA", "USA", "GERMANY", "UK");
 
     private final OrderRepository orderRepository;
     private final OrderValidator orderValidator;
     private final OrderEventService orderEventService;
+    private final IdempotencyKeyService idempotencyKeyService;
 
-    OrderService(OrderRepository orderRepository, OrderValidator orderValidator, OrderEventService orderEventService) {
+    OrderService(
+            OrderRepository orderRepository,
+            OrderValidator orderValidator,
+            OrderEventService orderEventService,
+            IdempotencyKeyService idempotencyKeyService) {
         this.orderRepository = orderRepository;
         this.orderValidator = orderValidator;
         this.orderEventService = orderEventService;
+        this.idempotencyKeyService = idempotencyKeyService;
+    }
+
+    public CreateOrderResponse createOrder(String userName, CreateOrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createOrder(userName, request);
+        }
+        Optional<CreateOrderResponse> replay = idempotencyKeyService.claim(userName, idempotencyKey, request);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        CreateOrderResponse response = createOrder(userName, request);
+        idempotencyKeyService.complete(userName, idempotencyKey, response);
+        return response;
     }
 
     public CreateOrderResponse createOrder(String userName, CreateOrderRequest request) {
@@ -41,40 +59,11 @@ public class OrderService {
     }
 
     public Optional<OrderDTO> findUserOrder(String userName, String orderNumber) {
+        if (!OrderNumbers.isValid(orderNumber)) {
+            return Optional.empty();
+        }
         return orderRepository
                 .findByUserNameAndOrderNumber(userName, orderNumber)
                 .map(OrderMapper::convertToDTO);
     }
-
-    public void processNewOrders() {
-        List<OrderEntity> orders = orderRepository.findByStatus(OrderStatus.NEW);
-        log.info("Found {} new orders to process", orders.size());
-        for (OrderEntity order : orders) {
-            this.process(order);
-        }
-    }
-
-    private void process(OrderEntity order) {
-        try {
-            if (canBeDelivered(order)) {
-                log.info("OrderNumber: {} can be delivered", order.getOrderNumber());
-                orderRepository.updateOrderStatus(order.getOrderNumber(), OrderStatus.DELIVERED);
-                orderEventService.save(OrderEventMapper.buildOrderDeliveredEvent(order));
-            } else {
-                log.info("OrderNumber: {} can't be delivered", order.getOrderNumber());
-                orderRepository.updateOrderStatus(order.getOrderNumber(), OrderStatus.CANCELLED);
-                orderEventService.save(
-                        OrderEventMapper.buildOrderCancelledEvent(order, "Can't deliver to the location"));
-            }
-        } catch (RuntimeException e) {
-            log.error("Failed to process Order with orderNumber {}", order.getOrderNumber(), e);
-            orderRepository.updateOrderStatus(order.getOrderNumber(), OrderStatus.ERROR);
-            orderEventService.save(OrderEventMapper.buildOrderErrorEvent(order, e.getMessage()));
-        }
-    }
-
-    private boolean canBeDelivered(OrderEntity order) {
-        return DELIVERY_ALLOWED_COUNTRIES.contains(
-                order.getDeliveryAddress().country().toUpperCase());
-    }
 }
@@ -1,36 +1,210 @@
 package com.js.bookstore.orders.domain;
 
+import com.js.bookstore.orders.ApplicationProperties;
 import com.js.bookstore.orders.clients.catalog.Product;
-import com.js.bookstore.orders.clients.catalog.ProductServiceClient;
+import com.js.bookstore.orders.clients.catalog.ProductNearCache;
 import com.js.bookstore.orders.domain.models.CreateOrderRequest;
 import com.js.bookstore.orders.domain.models.OrderItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+/**
+ * Validates order items against the catalog. Item codes are looked up in batches that run
+ * concurrently on virtual threads; the first invalid batch or the per-order deadline cancels the
+ * lookups still in flight.
+ */
 @Component
 class OrderValidator {
     private static final Logger log = LoggerFactory.getLogger(OrderValidator.class);
 
-    private final ProductServiceClient client;
+    private final ProductNearCache productCache;
+    private final ApplicationProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
-    OrderValidator(ProductServiceClient client) {
-        this.client = client;
+    OrderValidator(ProductNearCache productCache, ApplicationProperties properties, MeterRegistry meterRegistry) {
+        this.productCache = productCache;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
     }
 
     void validate(CreateOrderRequest request) {
-        Set<OrderItem> items = request.items();
-        for (OrderItem item : items) {
-            Product product = client.getProductByCode(item.code())
-                    .orElseThrow(() -> new InvalidOrderException("Invalid Product code: " + item.code()));
-            if (item.price().compareTo(product.price()) != 0) {
-                log.error(
-                        "Product price not matching. Actual price:{}, received price:{}",
-                        product.price(),
-                        item.price());
-                throw new InvalidOrderException("Product price not matching");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "invalid";
+        try {
+            validateItems(request.items());
+            outcome = "valid";
+        } finally {
+            sample.stop(meterRegistry.timer("orders.validation", "outcome", outcome));
+        }
+    }
+
+    private void validateItems(Set<OrderItem> items) {
+        meterRegistry.summary("orders.validation.items").record(items.size());
+        Map<String, List<OrderItem>> itemsByCode = items.stream().collect(Collectors.groupingBy(OrderItem::code));
+        forEachBatch(itemsByCode.keySet(), batch -> validateBatch(batch, itemsByCode));
+    }
+
+    /**
+     * Looks up the products of all given orders with the same batching and deadline as {@link #validate},
+     * for callers that check many orders against one lookup. Products whose cached price disagrees with
+     * an order are fetched again from catalog-service before {@link #findViolation} can reject the order.
+     */
+    Map<String, Product> findProducts(Collection<CreateOrderRequest> requests) {
+        Set<String> codes = requests.stream()
+                .flatMap(request -> request.items().stream())
+                .map(OrderItem::code)
+                .collect(Collectors.toSet());
+        Map<String, Product> products = new ConcurrentHashMap<>();
+        forEachBatch(codes, batch -> lookup(batch).forEach(product -> products.put(product.code(), product)));
+        Set<String> mismatched = requests.stream()
+                .flatMap(request -> request.items().stream())
+                .filter(item -> isPriceMismatch(item, products.get(item.code())))
+                .map(OrderItem::code)
+                .collect(Collectors.toSet());
+        if (!mismatched.isEmpty()) {
+            refresh(mismatched).forEach(product -> products.put(product.code(), product));
+        }
+        return products;
+    }
+
+    /**
+     * Returns why the order does not match the given catalog products, if it does not.
+     */
+    Optional<String> findViolation(CreateOrderRequest request, Map<String, Product> products) {
+        return request.items().stream()
+                .map(item -> violation(item, products.get(item.code())))
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
+    private void forEachBatch(Set<String> codes, Consumer<List<String>> task) {
+        Duration timeout = properties.validationTimeout();
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Void>> lookups = new ArrayList<>();
+        for (List<String> batch : partition(codes, properties.validationBatchSize())) {
+            lookups.add(completionService.submit(() -> {
+                task.accept(batch);
+                return null;
+            }));
+        }
+        try {
+            for (int i = 0; i < lookups.size(); i++) {
+                Future<Void> completed = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (completed == null) {
+                    log.warn("Order validation did not complete within {}", timeout);
+                    meterRegistry.counter("orders.validation.timeouts").increment();
+                    throw new InvalidOrderException("Order items could not be validated in time");
+                }
+                getResult(completed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidOrderException("Order validation was interrupted");
+        } finally {
+            lookups.forEach(lookup -> lookup.cancel(true));
+        }
+    }
+
+    private List<Product> lookup(List<String> codes) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Product> found = productCache.getProductsByCodes(new HashSet<>(codes));
+        sample.stop(meterRegistry.timer("orders.validation.lookup"));
+        return found;
+    }
+
+    private void validateBatch(List<String> codes, Map<String, List<OrderItem>> itemsByCode) {
+        Map<String, Product> products =
+                lookup(codes).stream().collect(Collectors.toMap(Product::code, Function.identity()));
+        Set<String> mismatched = codes.stream()
+                .filter(code ->
+                        itemsByCode.get(code).stream().anyMatch(item -> isPriceMismatch(item, products.get(code))))
+                .collect(Collectors.toSet());
+        if (!mismatched.isEmpty()) {
+            refresh(mismatched).forEach(product -> products.put(product.code(), product));
+        }
+        for (String code : codes) {
+            for (OrderItem item : itemsByCode.get(code)) {
+                String violation = violation(item, products.get(code));
+                if (violation != null) {
+                    throw new InvalidOrderException(violation);
+                }
+            }
+        }
+    }
+
+    /**
+     * A cached price may be up to TTL + max-stale old, so a mismatch is checked against catalog-service
+     * before the order is rejected.
+     */
+    private List<Product> refresh(Set<String> codes) {
+        meterRegistry.counter("orders.validation.price.refresh").increment(codes.size());
+        return productCache.refresh(codes);
+    }
+
+    private static boolean isPriceMismatch(OrderItem item, Product product) {
+        return product != null && item.price().compareTo(product.price()) != 0;
+    }
+
+    private static String violation(OrderItem item, Product product) {
+        if (product == null) {
+            return "Invalid Product code: " + item.code();
+        }
+        if (isPriceMismatch(item, product)) {
+            log.error("Product price not matching. Actual price:{}, received price:{}", product.price(), item.price());
+            return "Product price not matching";
+        }
+        return null;
+    }
+
+    private static void getResult(Future<Void> lookup) throws InterruptedException {
+        try {
+            lookup.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static List<List<String>> partition(Set<String> codes, int batchSize) {
+        List<String> sorted = codes.stream().sorted().toList();
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += batchSize) {
+            batches.add(sorted.subList(from, Math.min(from + batchSize, sorted.size())));
         }
+        return batches;
     }
 }
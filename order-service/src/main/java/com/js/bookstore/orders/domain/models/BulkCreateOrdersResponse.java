@@ -0,0 +1,5 @@
+package com.js.bookstore.orders.domain.models;
+
+import java.util.List;
+
+public record BulkCreateOrdersResponse(int created, int rejected, List<BulkOrderResult> results) {}
@@ -0,0 +1,11 @@
+package com.js.bookstore.orders.domain.models;
+
+public record BulkOrderResult(int index, String orderNumber, String error) {
+    public static BulkOrderResult created(int index, String orderNumber) {
+        return new BulkOrderResult(index, orderNumber, null);
+    }
+
+    public static BulkOrderResult rejected(int index, String error) {
+        return new BulkOrderResult(index, null, error);
+    }
+}
@@ -0,0 +1,22 @@
+package com.js.bookstore.orders.jobs;
+
+import com.js.bookstore.orders.domain.DeliveryRules;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks up changes to the delivery rules file on every replica, so no scheduler lock.
+ */
+@Component
+public class DeliveryRulesReloadJob {
+    private final DeliveryRules deliveryRules;
+
+    public DeliveryRulesReloadJob(DeliveryRules deliveryRules) {
+        this.deliveryRules = deliveryRules;
+    }
+
+    @Scheduled(cron = "${orders.delivery-rules-reload-job.cron}")
+    public void reloadDeliveryRules() {
+        deliveryRules.reloadIfModified();
+    }
+}
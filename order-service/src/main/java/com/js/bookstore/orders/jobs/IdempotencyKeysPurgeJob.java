@@ -0,0 +1,29 @@
+package com.js.bookstore.orders.jobs;
+
+import com.js.bookstore.orders.domain.IdempotencyKeyService;
+import java.time.Instant;
+import net.javacrumbs.shedlock.core.LockAssert;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class IdempotencyKeysPurgeJob {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeysPurgeJob.class);
+
+    private final IdempotencyKeyService idempotencyKeyService;
+
+    public IdempotencyKeysPurgeJob(IdempotencyKeyService idempotencyKeyService) {
+        this.idempotencyKeyService = idempotencyKeyService;
+    }
+
+    @Scheduled(cron = "${orders.idempotency-keys-purge-job.cron}")
+    @SchedulerLock(name = "purgeIdempotencyKeys")
+    public void purgeExpiredKeys() {
+        LockAssert.assertLocked();
+        log.info("Purging expired idempotency keys at {}", Instant.now());
+        idempotencyKeyService.purgeExpiredKeys();
+    }
+}
@@ -0,0 +1,119 @@
+package com.js.bookstore.orders.jobs;
+
+import com.js.bookstore.orders.domain.OrderProcessingPipeline;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.postgresql.PGProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listens on the Postgres 'new_orders' channel (see V7 migration) on a dedicated connection and
+ * signals the {@link OrderProcessingPipeline}, so orders committed on any replica are picked up without
+ * waiting for the sweeper.
+ */
+@Component
+class NewOrdersNotificationListener implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(NewOrdersNotificationListener.class);
+    private static final String CHANNEL = "new_orders";
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+    // a connection that silently died (e.g. dropped by a NAT or firewall) receives no notifications
+    // and reports no error, so it is checked with a query that must answer within the socket timeout
+    private static final Duration VALIDATION_INTERVAL = Duration.ofSeconds(30);
+    private static final int SOCKET_TIMEOUT_SECONDS = 10;
+
+    private final JdbcConnectionDetails connectionDetails;
+    private final OrderProcessingPipeline pipeline;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    NewOrdersNotificationListener(JdbcConnectionDetails connectionDetails, OrderProcessingPipeline pipeline) {
+        this.connectionDetails = connectionDetails;
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (pipeline.isProcessOnCommit()) {
+            worker = Thread.ofPlatform().name("new-orders-listener").daemon().start(this::run);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                listen();
+            } catch (SQLException e) {
+                log.warn("Lost connection while listening for new orders: {}", e.getMessage());
+                sleep(RECONNECT_DELAY);
+            }
+        }
+    }
+
+    private void listen() throws SQLException {
+        try (Connection connection =
+                        DriverManager.getConnection(connectionDetails.getJdbcUrl(), connectionProperties());
+                Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+            log.info("Listening for new orders on channel: {}", CHANNEL);
+            // notifications may have been missed while disconnected
+            pipeline.signal();
+
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            long validatedAt = System.nanoTime();
+            while (running) {
+                PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                if (notifications != null && notifications.length > 0) {
+                    pipeline.signal();
+                }
+                if (System.nanoTime() - validatedAt >= VALIDATION_INTERVAL.toNanos()) {
+                    // throws when the connection is gone, so that run() reconnects
+                    statement.execute("select 1");
+                    validatedAt = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    private Properties connectionProperties() {
+        Properties properties = new Properties();
+        PGProperty.USER.set(properties, connectionDetails.getUsername());
+        PGProperty.PASSWORD.set(properties, connectionDetails.getPassword());
+        PGProperty.TCP_KEEP_ALIVE.set(properties, true);
+        PGProperty.SOCKET_TIMEOUT.set(properties, SOCKET_TIMEOUT_SECONDS);
+        return properties;
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,29 +1,31 @@
 package com.js.bookstore.orders.jobs;
 
-import com.js.bookstore.orders.domain.OrderService;
+import com.js.bookstore.orders.domain.OrderProcessingPipeline;
 import java.time.Instant;
-import net.javacrumbs.shedlock.core.LockAssert;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Sweeper for NEW orders whose commit signal was missed, e.g. while a replica was restarting, and
+ * for orders left IN_PROCESS by a replica that died before persisting them. Runs on every replica
+ * without a scheduler lock: pipelines claim disjoint chunks of NEW orders with SKIP LOCKED.
+ */
 @Component
 public class OrderProcessingJob {
     private static final Logger logger = LoggerFactory.getLogger(OrderProcessingJob.class);
 
-    private final OrderService orderService;
+    private final OrderProcessingPipeline pipeline;
 
-    public OrderProcessingJob(OrderService orderService) {
-        this.orderService = orderService;
+    public OrderProcessingJob(OrderProcessingPipeline pipeline) {
+        this.pipeline = pipeline;
     }
 
     @Scheduled(cron = "${orders.new-orders-job.cron}")
-    @SchedulerLock(name = "processNewOrders")
     public void processNewOrders() {
-        LockAssert.assertLocked();
-        logger.info("Processing new orders at: {}", Instant.now());
-        orderService.processNewOrders();
+        logger.info("Sweeping new orders at: {}", Instant.now());
+        pipeline.releaseExpiredClaims();
+        pipeline.signal();
     }
 }
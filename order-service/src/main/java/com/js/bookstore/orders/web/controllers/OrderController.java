@@ -1,18 +1,26 @@
 package com.js.bookstore.orders.web.controllers;
 
+import com.js.bookstore.orders.domain.BulkOrderService;
+import com.js.bookstore.orders.domain.OrderAcceptanceBuffer;
 import com.js.bookstore.orders.domain.OrderNotFoundException;
 import com.js.bookstore.orders.domain.OrderService;
 import com.js.bookstore.orders.domain.SecurityService;
+import com.js.bookstore.orders.domain.models.BulkCreateOrdersResponse;
 import com.js.bookstore.orders.domain.models.CreateOrderRequest;
 import com.js.bookstore.orders.domain.models.CreateOrderResponse;
 import com.js.bookstore.orders.domain.models.OrderDTO;
 import com.js.bookstore.orders.domain.models.OrderSummary;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -22,19 +30,41 @@ class OrderController {
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
 
     private final OrderService orderService;
+    private final BulkOrderService bulkOrderService;
+    private final Optional<OrderAcceptanceBuffer> orderAcceptanceBuffer;
     private final SecurityService securityService;
 
-    OrderController(OrderService orderService, SecurityService securityService) {
+    OrderController(
+            OrderService orderService,
+            BulkOrderService bulkOrderService,
+            Optional<OrderAcceptanceBuffer> orderAcceptanceBuffer,
+            SecurityService securityService) {
         this.orderService = orderService;
+        this.bulkOrderService = bulkOrderService;
+        this.orderAcceptanceBuffer = orderAcceptanceBuffer;
         this.securityService = securityService;
     }
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    CreateOrderResponse createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    ResponseEntity<CreateOrderResponse> createOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
         String userName = securityService.getLoginUserName();
+        // idempotent requests need the synchronous transaction to claim their key
+        if (idempotencyKey == null && orderAcceptanceBuffer.isPresent()) {
+            log.info("Accepting order for user: {}", userName);
+            return ResponseEntity.accepted().body(orderAcceptanceBuffer.get().accept(userName, request));
+        }
         log.info("Creating order for user: {}", userName);
-        return orderService.createOrder(userName, request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(orderService.createOrder(userName, request, idempotencyKey));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    BulkCreateOrdersResponse createOrders(InputStream body) throws IOException {
+        String userName = securityService.getLoginUserName();
+        log.info("Creating bulk orders for user: {}", userName);
+        return bulkOrderService.createOrders(userName, body);
     }
 
     @GetMapping
@@ -1,6 +1,9 @@
 package com.js.bookstore.orders.web.exception;
 
+import com.js.bookstore.orders.clients.catalog.CatalogServiceUnavailableException;
+import com.js.bookstore.orders.domain.IdempotencyKeyReusedException;
 import com.js.bookstore.orders.domain.InvalidOrderException;
+import com.js.bookstore.orders.domain.OrderAcceptanceBufferFullException;
 import com.js.bookstore.orders.domain.OrderNotFoundException;
 import jakarta.annotation.Nullable;
 import java.net.URI;
@@ -55,6 +58,43 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    ProblemDetail handleIdempotencyKeyReusedException(IdempotencyKeyReusedException e) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+        problemDetail.setTitle("Idempotency Key Reused");
+        problemDetail.setType(BAD_REQUEST_TYPE);
+        problemDetail.setProperty("service", SERVICE_NAME);
+        problemDetail.setProperty("error_category", "Generic");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(OrderAcceptanceBufferFullException.class)
+    ResponseEntity<ProblemDetail> handleOrderAcceptanceBufferFullException(OrderAcceptanceBufferFullException e) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        problemDetail.setTitle("Too Many Orders");
+        problemDetail.setType(ISE_FOUND_TYPE);
+        problemDetail.setProperty("service", SERVICE_NAME);
+        problemDetail.setProperty("error_category", "Generic");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problemDetail);
+    }
+
+    @ExceptionHandler(CatalogServiceUnavailableException.class)
+    ResponseEntity<ProblemDetail> handleCatalogServiceUnavailableException(CatalogServiceUnavailableException e) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        problemDetail.setTitle("Catalog Unavailable");
+        problemDetail.setType(ISE_FOUND_TYPE);
+        problemDetail.setProperty("service", SERVICE_NAME);
+        problemDetail.setProperty("error_category", "Generic");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(problemDetail);
+    }
+
     @Override
     @Nullable protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
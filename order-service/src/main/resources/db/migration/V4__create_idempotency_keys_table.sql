@@ -0,0 +1,15 @@
+create sequence idempotency_key_id_seq start with 1 increment by 50;
+
+create table idempotency_keys
+(
+    id              bigint default nextval('idempotency_key_id_seq') not null,
+    user_name       text                                             not null,
+    idempotency_key text                                             not null,
+    request_hash    text                                             not null,
+    order_number    text,
+    created_at      timestamp                                        not null,
+    primary key (id),
+    unique (user_name, idempotency_key)
+);
+
+create index idempotency_keys_created_at_idx on idempotency_keys (created_at);
@@ -0,0 +1,12 @@
+-- order numbers were random UUID strings in text columns; store them as native 16 byte uuids.
+-- existing (v4) order numbers convert as-is, new ones are time-ordered UUIDv7 generated by the app.
+-- the type change rewrites the tables and their indexes under an exclusive lock, so on large
+-- installations run it in a maintenance window.
+alter table order_events drop constraint order_events_order_number_fkey;
+
+alter table orders alter column order_number type uuid using order_number::uuid;
+alter table order_events alter column order_number type uuid using order_number::uuid;
+alter table idempotency_keys alter column order_number type uuid using order_number::uuid;
+
+alter table order_events
+    add constraint order_events_order_number_fkey foreign key (order_number) references orders (order_number);
@@ -0,0 +1,6 @@
+-- NEW orders are processed in keyset order over (created_at, id), which needs a non-null created_at
+update orders set created_at = coalesce(updated_at, now()) where created_at is null;
+alter table orders alter column created_at set default now();
+alter table orders alter column created_at set not null;
+
+create index orders_new_created_at_id_idx on orders (created_at, id) where status = 'NEW';
@@ -0,0 +1,16 @@
+-- Wakes up the order processors of every order-service replica when NEW orders are committed.
+-- Notifications are delivered on commit and identical ones are collapsed per transaction.
+create or replace function notify_new_orders() returns trigger as
+$$
+begin
+    if exists (select 1 from new_rows where status = 'NEW') then
+        perform pg_notify('new_orders', '');
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger orders_insert_notify
+    after insert on orders
+    referencing new table as new_rows
+    for each statement execute function notify_new_orders();
@@ -0,0 +1,7 @@
+-- NEW orders claimed by a processing pipeline stay IN_PROCESS until their transition commits.
+-- The claim token guards that transition; claimed_at lets the sweeper return the claims of a
+-- replica that died mid-pipeline.
+alter table orders add column claimed_by uuid;
+alter table orders add column claimed_at timestamp;
+
+create index orders_in_process_claimed_at_idx on orders (claimed_at) where status = 'IN_PROCESS';
@@ -0,0 +1,14 @@
+-- indexes for every repository query that used to scan a whole table. orders and order_events
+-- grow forever, so they are built concurrently; flyway runs this migration outside a transaction.
+
+-- GET /api/orders lists the user's order numbers and statuses with an index-only scan
+create index concurrently if not exists orders_username_idx on orders (username) include (order_number, status);
+
+-- foreign keys are not indexed automatically; loading orders with their items joins on order_id
+create index concurrently if not exists order_items_order_id_idx on order_items (order_id);
+
+-- the outbox publisher reads the oldest events first
+create index concurrently if not exists order_events_created_at_id_idx on order_events (created_at, id);
+
+-- a stopping pipeline returns its claims to NEW by claim token
+create index concurrently if not exists orders_in_process_claimed_by_idx on orders (claimed_by) where status = 'IN_PROCESS';
@@ -2,6 +2,7 @@ package com.js.bookstore.orders;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
 import static java.util.Collections.singletonList;
@@ -81,6 +82,25 @@ public abstract class AbstractIT {
                     }
                 """
                                         .formatted(code, name, price.doubleValue()))));
+        stubFor(WireMock.post(urlMatching("/api/products/lookup"))
+                .withRequestBody(matchingJsonPath("$.codes[?(@ == '%s')]".formatted(code)))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .withStatus(200)
+                        .withBody(
+                                """
+                    {
+                        "products": [
+                            {
+                                "code": "%s",
+                                "name": "%s",
+                                "price": %f
+                            }
+                        ],
+                        "missingCodes": []
+                    }
+                """
+                                        .formatted(code, name, price.doubleValue()))));
     }
 
     protected String getToken() {
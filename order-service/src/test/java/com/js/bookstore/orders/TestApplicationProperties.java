@@ -0,0 +1,30 @@
+package com.js.bookstore.orders;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+/**
+ * Builds {@link ApplicationProperties} the way Spring Boot binds them, so unit tests only name the
+ * settings they care about and every other component gets its {@code @DefaultValue}.
+ */
+public final class TestApplicationProperties {
+
+    private TestApplicationProperties() {}
+
+    public static ApplicationProperties defaults() {
+        return of(Map.of());
+    }
+
+    /**
+     * @param properties values keyed by their name below the {@code orders} prefix, e.g.
+     *     {@code "validation-batch-size"}; values may be strings ("5s") or already typed (Duration)
+     */
+    public static ApplicationProperties of(Map<String, ?> properties) {
+        Map<String, Object> source = new LinkedHashMap<>();
+        properties.forEach((name, value) -> source.put("orders." + name, value));
+        return new Binder(new MapConfigurationPropertySource(source))
+                .bindOrCreate("orders", ApplicationProperties.class);
+    }
+}
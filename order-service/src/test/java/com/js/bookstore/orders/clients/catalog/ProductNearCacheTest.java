@@ -0,0 +1,145 @@
+package com.js.bookstore.orders.clients.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.js.bookstore.orders.ApplicationProperties;
+import com.js.bookstore.orders.TestApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ProductNearCacheTest {
+    private static final Product P100 = new Product("P100", "Product P100", null, null, new BigDecimal("10.00"));
+
+    private final ProductServiceClient client = mock(ProductServiceClient.class);
+    private final MutableClock clock = new MutableClock();
+    private final ProductNearCache cache = new ProductNearCache(
+            client,
+            properties(Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofHours(1)),
+            new SimpleMeterRegistry(),
+            clock);
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void shouldServeFreshProductsFromCache() {
+        when(client.getProductsByCodes(anySet())).thenReturn(List.of(P100));
+
+        assertThat(cache.getProductsByCodes(Set.of("P100"))).containsExactly(P100);
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(cache.getProductsByCodes(Set.of("P100"))).containsExactly(P100);
+
+        verify(client, times(1)).getProductsByCodes(anySet());
+    }
+
+    @Test
+    void shouldServeStaleProductsWhileRefreshingInBackground() {
+        when(client.getProductsByCodes(anySet())).thenReturn(List.of(P100));
+        cache.getProductsByCodes(Set.of("P100"));
+
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(cache.getProductsByCodes(Set.of("P100"))).containsExactly(P100);
+
+        await().untilAsserted(() -> verify(client, times(2)).getProductsByCodes(anySet()));
+    }
+
+    @Test
+    void shouldServeProductsWithinMaxStaleAndRejectAfterwardsWhenCatalogIsUnavailableWithDefaults() {
+        ProductNearCache defaults =
+                new ProductNearCache(client, TestApplicationProperties.defaults(), new SimpleMeterRegistry(), clock);
+        try {
+            when(client.getProductsByCodes(anySet())).thenReturn(List.of(P100));
+            defaults.getProductsByCodes(Set.of("P100"));
+            when(client.getProductsByCodes(anySet()))
+                    .thenThrow(new CatalogServiceUnavailableException("down", new RuntimeException()));
+
+            clock.advance(Duration.ofMinutes(5));
+            assertThat(defaults.getProductsByCodes(Set.of("P100"))).containsExactly(P100);
+
+            clock.advance(Duration.ofMinutes(1));
+            assertThatThrownBy(() -> defaults.getProductsByCodes(Set.of("P100")))
+                    .isInstanceOf(CatalogServiceUnavailableException.class);
+        } finally {
+            defaults.shutdown();
+        }
+    }
+
+    @Test
+    void shouldServeProductsPastMaxStaleWithinStaleIfErrorWhenCatalogIsUnavailable() {
+        when(client.getProductsByCodes(anySet())).thenReturn(List.of(P100));
+        cache.getProductsByCodes(Set.of("P100"));
+
+        clock.advance(Duration.ofMinutes(30));
+        when(client.getProductsByCodes(anySet()))
+                .thenThrow(new CatalogServiceUnavailableException("down", new RuntimeException()));
+
+        assertThat(cache.getProductsByCodes(Set.of("P100"))).containsExactly(P100);
+        assertThatThrownBy(() -> cache.getProductsByCodes(Set.of("P100", "P200")))
+                .isInstanceOf(CatalogServiceUnavailableException.class);
+
+        clock.advance(Duration.ofMinutes(40));
+        assertThatThrownBy(() -> cache.getProductsByCodes(Set.of("P100")))
+                .isInstanceOf(CatalogServiceUnavailableException.class);
+    }
+
+    @Test
+    void shouldRefreshFreshProductsOnRequest() {
+        Product repriced = new Product("P100", "Product P100", null, null, new BigDecimal("12.00"));
+        when(client.getProductsByCodes(anySet())).thenReturn(List.of(P100), List.of(repriced));
+        cache.getProductsByCodes(Set.of("P100"));
+
+        assertThat(cache.refresh(Set.of("P100"))).containsExactly(repriced);
+        assertThat(cache.getProductsByCodes(Set.of("P100"))).containsExactly(repriced);
+        verify(client, times(2)).getProductsByCodes(anySet());
+    }
+
+    private static ApplicationProperties properties(Duration ttl, Duration maxStale, Duration staleIfError) {
+        return TestApplicationProperties.of(Map.of(
+                "catalog-cache-ttl", ttl,
+                "catalog-cache-max-stale", maxStale,
+                "catalog-cache-stale-if-error", staleIfError,
+                "catalog-cache-maximum-size", 100));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
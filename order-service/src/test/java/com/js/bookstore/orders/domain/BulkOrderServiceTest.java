@@ -0,0 +1,97 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.js.bookstore.orders.TestApplicationProperties;
+import com.js.bookstore.orders.clients.catalog.Product;
+import com.js.bookstore.orders.domain.models.BulkCreateOrdersResponse;
+import com.js.bookstore.orders.domain.models.BulkOrderResult;
+import com.js.bookstore.orders.testdata.TestDataFactory;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class BulkOrderServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OrderValidator orderValidator = mock(OrderValidator.class);
+    private final BulkOrderService service = new BulkOrderService(
+            mock(OrderRepository.class),
+            mock(OrderEventService.class),
+            orderValidator,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            objectMapper,
+            mock(PlatformTransactionManager.class),
+            TestApplicationProperties.of(Map.of("bulk-orders-chunk-size", 2)));
+
+    @Test
+    void shouldRejectElementsThatAreNotOrdersAndKeepReading() throws Exception {
+        givenCatalogHasP100();
+        ObjectNode badPrice = validOrder();
+        ((ObjectNode) badPrice.withArray("items").get(0)).put("price", "abc");
+
+        BulkCreateOrdersResponse response = createOrders(
+                "[" + validOrder() + ", 42, " + badPrice + ", " + validOrder() + ", " + validOrder() + "]");
+
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(response.rejected()).isEqualTo(2);
+        assertThat(response.results()).extracting(BulkOrderResult::index).containsExactly(0, 1, 2, 3, 4);
+        assertThat(response.results().get(1).error()).isEqualTo("Order must be a JSON object");
+        assertThat(response.results().get(2).error()).startsWith("Invalid order: ");
+        assertThat(response.results())
+                .filteredOn(result -> result.index() != 1 && result.index() != 2)
+                .allSatisfy(result -> assertThat(result.orderNumber()).isNotNull());
+    }
+
+    @Test
+    void shouldReportOrdersReadBeforeMalformedJson() throws Exception {
+        givenCatalogHasP100();
+
+        BulkCreateOrdersResponse response =
+                createOrders("[" + validOrder() + ", " + validOrder() + ", " + validOrder() + ", {\"customer\":");
+
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(response.rejected()).isEqualTo(1);
+        assertThat(response.results().get(3).index()).isEqualTo(3);
+        assertThat(response.results().get(3).error()).startsWith("Malformed bulk orders payload");
+    }
+
+    @Test
+    void shouldRejectContentAfterTheArray() throws Exception {
+        givenCatalogHasP100();
+
+        BulkCreateOrdersResponse response = createOrders("[" + validOrder() + "] {}");
+
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.results().get(1).error()).startsWith("Malformed bulk orders payload");
+    }
+
+    @Test
+    void shouldRejectPayloadThatIsNotAnArray() {
+        assertThatThrownBy(() -> createOrders(validOrder().toString()))
+                .isInstanceOf(InvalidOrderException.class)
+                .hasMessage("Bulk orders must be sent as a JSON array");
+    }
+
+    private void givenCatalogHasP100() {
+        when(orderValidator.findProducts(anyCollection()))
+                .thenReturn(Map.of("P100", new Product("P100", "Product 1", null, null, new BigDecimal("25.50"))));
+    }
+
+    private ObjectNode validOrder() {
+        return objectMapper.valueToTree(TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50")));
+    }
+
+    private BulkCreateOrdersResponse createOrders(String payload) throws Exception {
+        return service.createOrders("user", new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
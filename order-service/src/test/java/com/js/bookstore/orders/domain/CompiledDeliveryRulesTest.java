@@ -0,0 +1,100 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.js.bookstore.orders.domain.models.Address;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CompiledDeliveryRulesTest {
+    private final CompiledDeliveryRules rules = CompiledDeliveryRules.compile(List.of(
+            new DeliveryRuleDefinition("India", List.of("UP", "DL"), List.of("201000-201999", "110001"), null, null),
+            new DeliveryRuleDefinition("USA", null, null, Set.of("P105"), new BigDecimal("500")),
+            new DeliveryRuleDefinition("UK", null, null, null, null)));
+
+    @Test
+    void shouldMatchCountryAndStateIgnoringCase() {
+        assertThat(rules.canBeDelivered(address("india", "up", "201309"), List.of()))
+                .isTrue();
+        assertThat(rules.canBeDelivered(address("Uk", "London", "SW1A"), List.of()))
+                .isTrue();
+        assertThat(rules.canBeDelivered(address("India", "MH", "201309"), List.of()))
+                .isFalse();
+        assertThat(rules.canBeDelivered(address("Japan", "Tokyo", "100"), List.of()))
+                .isFalse();
+    }
+
+    @Test
+    void shouldMatchZipCodeRanges() {
+        assertThat(rules.canBeDelivered(address("India", "DL", "110001"), List.of()))
+                .isTrue();
+        assertThat(rules.canBeDelivered(address("India", "DL", "110002"), List.of()))
+                .isFalse();
+        assertThat(rules.canBeDelivered(address("India", "UP", "201999"), List.of()))
+                .isTrue();
+        assertThat(rules.canBeDelivered(address("India", "UP", "20A309"), List.of()))
+                .isFalse();
+    }
+
+    @Test
+    void shouldRejectExcludedProductsAndOrderValueAboveMaximum() {
+        Address address = address("USA", "NY", "10001");
+
+        assertThat(rules.canBeDelivered(address, List.of(item("P100", "100.00", 5))))
+                .isTrue();
+        assertThat(rules.canBeDelivered(address, List.of(item("P100", "100.00", 6))))
+                .isFalse();
+        assertThat(rules.canBeDelivered(address, List.of(item("P105", "1.00", 1))))
+                .isFalse();
+    }
+
+    @Test
+    void shouldMergeRulesForTheSameCountryInDifferentCase() {
+        CompiledDeliveryRules rules = CompiledDeliveryRules.compile(List.of(
+                new DeliveryRuleDefinition("India", List.of("UP"), null, null, null),
+                new DeliveryRuleDefinition("INDIA ", List.of("DL"), null, null, null)));
+
+        assertThat(rules.canBeDelivered(address("india", "UP", "201309"), List.of()))
+                .isTrue();
+        assertThat(rules.canBeDelivered(address("india", "DL", "110001"), List.of()))
+                .isTrue();
+    }
+
+    @Test
+    void shouldCompareOrderValueExactly() {
+        CompiledDeliveryRules rules = CompiledDeliveryRules.compile(
+                List.of(new DeliveryRuleDefinition("USA", null, null, null, new BigDecimal("0.30"))));
+        Address address = address("USA", "NY", "10001");
+
+        // 0.1 + 0.2 exceeds 0.3 in double arithmetic
+        assertThat(rules.canBeDelivered(address, List.of(item("P100", "0.10", 1), item("P101", "0.20", 1))))
+                .isTrue();
+        assertThat(rules.canBeDelivered(address, List.of(item("P100", "0.10", 1), item("P101", "0.21", 1))))
+                .isFalse();
+    }
+
+    @Test
+    void shouldRejectInvalidDefinitions() {
+        assertThatThrownBy(() -> CompiledDeliveryRules.compile(
+                        List.of(new DeliveryRuleDefinition("India", null, List.of("300-200"), null, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledDeliveryRules.compile(
+                        List.of(new DeliveryRuleDefinition(null, null, null, null, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static Address address(String country, String state, String zipCode) {
+        return new Address("HNO 123", null, "City", state, zipCode, country);
+    }
+
+    static OrderItemEntity item(String code, String price, int quantity) {
+        OrderItemEntity item = new OrderItemEntity();
+        item.setCode(code);
+        item.setPrice(new BigDecimal(price));
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,80 @@
+package com.js.bookstore.orders.domain;
+
+import static com.js.bookstore.orders.domain.CompiledDeliveryRulesTest.address;
+import static com.js.bookstore.orders.domain.CompiledDeliveryRulesTest.item;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.js.bookstore.orders.domain.models.Address;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures single-threaded evaluations per second and bytes allocated per evaluation of the compiled
+ * delivery rules. Run with {@code ./mvnw test -Dtest=DeliveryRulesBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DeliveryRulesBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(DeliveryRulesBenchmarkTest.class);
+    private static final int WARMUP_EVALUATIONS = 5_000_000;
+    private static final int MEASURED_EVALUATIONS = 20_000_000;
+
+    @Test
+    void measureEvaluationThroughputAndAllocation() {
+        List<DeliveryRuleDefinition> definitions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            definitions.add(new DeliveryRuleDefinition(
+                    "Country" + i,
+                    List.of("S1", "S2", "S3"),
+                    List.of("10000-19999", "30000-39999"),
+                    Set.of("P9" + i),
+                    new BigDecimal("1000")));
+        }
+        definitions.add(new DeliveryRuleDefinition(
+                "India", List.of("UP", "DL", "HR"), List.of("110000-110099", "201000-201999"), null, null));
+        definitions.add(new DeliveryRuleDefinition("USA", null, null, Set.of("P105"), new BigDecimal("500")));
+        CompiledDeliveryRules rules = CompiledDeliveryRules.compile(definitions);
+
+        Address[] addresses = {
+            address("india", "UP", "201309"),
+            address("USA", "NY", "10001"),
+            address("Country42", "S2", "35000"),
+            address("Japan", "Tokyo", "100-0001"),
+        };
+        List<OrderItemEntity> items = List.of(item("P100", "34.00", 2), item("P101", "45.40", 1));
+
+        int delivered = evaluate(rules, addresses, items, WARMUP_EVALUATIONS);
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        delivered += evaluate(rules, addresses, items, MEASURED_EVALUATIONS);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        log.info(
+                "{} evaluations: {} evaluations/s, {} bytes allocated per evaluation ({} delivered)",
+                MEASURED_EVALUATIONS,
+                MEASURED_EVALUATIONS * 1_000_000_000L / elapsed,
+                (double) allocated / MEASURED_EVALUATIONS,
+                delivered);
+        assertThat((double) allocated / MEASURED_EVALUATIONS).isLessThan(1.0);
+    }
+
+    private static int evaluate(
+            CompiledDeliveryRules rules, Address[] addresses, List<OrderItemEntity> items, int evaluations) {
+        int delivered = 0;
+        for (int i = 0; i < evaluations; i++) {
+            if (rules.canBeDelivered(addresses[i & 3], items)) {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+}
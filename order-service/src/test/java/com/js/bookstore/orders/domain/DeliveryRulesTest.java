@@ -0,0 +1,58 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.js.bookstore.orders.TestApplicationProperties;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+class DeliveryRulesTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldSwapInModifiedRulesAndKeepThemWhenTheFileBreaks() throws IOException {
+        Path file = directory.resolve("delivery-rules.json");
+        write(file, "[{ \"country\": \"India\" }]", 1);
+        DeliveryRules rules = new DeliveryRules(
+                TestApplicationProperties.of(
+                        Map.of("delivery-rules-location", file.toUri().toString())),
+                new DefaultResourceLoader(),
+                new ObjectMapper());
+
+        assertThat(rules.canBeDelivered(order("India"))).isTrue();
+        assertThat(rules.canBeDelivered(order("Japan"))).isFalse();
+
+        write(file, "[{ \"country\": \"Japan\" }]", 2);
+        rules.reloadIfModified();
+
+        assertThat(rules.canBeDelivered(order("India"))).isFalse();
+        assertThat(rules.canBeDelivered(order("Japan"))).isTrue();
+
+        write(file, "[{ \"country\": ", 3);
+        rules.reloadIfModified();
+
+        assertThat(rules.canBeDelivered(order("Japan"))).isTrue();
+    }
+
+    private static void write(Path file, String content, int version) throws IOException {
+        Files.writeString(file, content);
+        // file systems with coarse timestamps would otherwise report the same modification time
+        Files.setLastModifiedTime(
+                file, FileTime.from(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(version)));
+    }
+
+    private static OrderEntity order(String country) {
+        OrderEntity order = new OrderEntity();
+        order.setDeliveryAddress(CompiledDeliveryRulesTest.address(country, "State", "12345"));
+        return order;
+    }
+}
@@ -0,0 +1,100 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.js.bookstore.orders.TestApplicationProperties;
+import com.js.bookstore.orders.clients.catalog.CatalogServiceUnavailableException;
+import com.js.bookstore.orders.clients.catalog.Product;
+import com.js.bookstore.orders.domain.models.OrderCancelledEvent;
+import com.js.bookstore.orders.domain.models.OrderCreatedEvent;
+import com.js.bookstore.orders.domain.models.OrderErrorEvent;
+import com.js.bookstore.orders.domain.models.OrderStatus;
+import com.js.bookstore.orders.testdata.TestDataFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class OrderAcceptanceBufferTest {
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderEventService orderEventService = mock(OrderEventService.class);
+    private final OrderValidator orderValidator = mock(OrderValidator.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderAcceptanceBuffer buffer = new OrderAcceptanceBuffer(
+            orderRepository,
+            orderEventService,
+            orderValidator,
+            mock(PlatformTransactionManager.class),
+            TestApplicationProperties.defaults(),
+            meterRegistry);
+    private final List<OrderEntity> saved = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    void shouldKeepOrdersPendingWhileCatalogIsUnavailable() {
+        recordSavedOrders();
+        when(orderValidator.findProducts(anyCollection()))
+                .thenThrow(new CatalogServiceUnavailableException("down", new RuntimeException()))
+                .thenReturn(Map.of("P100", new Product("P100", "Product 1", null, null, new BigDecimal("25.50"))));
+        buffer.start();
+
+        String orderNumber = buffer.accept(
+                        "user", TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50")))
+                .orderNumber();
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(saved).singleElement().satisfies(order -> {
+                    assertThat(order.getOrderNumber()).isEqualTo(orderNumber);
+                    assertThat(order.getStatus()).isEqualTo(OrderStatus.NEW);
+                }));
+        verify(orderEventService).save(any(OrderCreatedEvent.class));
+        verify(orderEventService, never()).save(any(OrderCancelledEvent.class));
+    }
+
+    @Test
+    void shouldStoreBatchThatKeepsFailingAsError() {
+        when(orderValidator.findProducts(anyCollection()))
+                .thenReturn(Map.of("P100", new Product("P100", "Product 1", null, null, new BigDecimal("25.50"))));
+        when(orderRepository.saveAll(anyList())).thenThrow(new IllegalStateException("poison"));
+        when(orderRepository.save(any(OrderEntity.class))).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        buffer.start();
+
+        buffer.accept("user", TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50")));
+
+        await().atMost(Duration.ofSeconds(15))
+                .untilAsserted(() -> assertThat(saved).singleElement().satisfies(order -> assertThat(order.getStatus())
+                        .isEqualTo(OrderStatus.ERROR)));
+        verify(orderRepository, times(OrderAcceptanceBuffer.MAX_ATTEMPTS)).saveAll(anyList());
+        verify(orderEventService).save(any(OrderErrorEvent.class));
+        assertThat(meterRegistry.counter("orders.acceptance.diverted").count()).isEqualTo(1);
+    }
+
+    private void recordSavedOrders() {
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<OrderEntity> orders = invocation.getArgument(0);
+            saved.addAll(orders);
+            return orders;
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.js.bookstore.orders.domain.models.OrderCreatedEvent;
+import com.js.bookstore.orders.testdata.TestDataFactory;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class OrderEventServiceTest {
+    private final OrderEventRepository orderEventRepository = mock(OrderEventRepository.class);
+    private final OrderEventPublisher orderEventPublisher = mock(OrderEventPublisher.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OrderEventService service = new OrderEventService(
+            orderEventRepository,
+            orderEventPublisher,
+            JsonMapper.builder().findAndAddModules().build(),
+            mock(ApplicationEventPublisher.class),
+            transactionManager);
+
+    @Test
+    void shouldCommitEveryPublishedBatch() {
+        OrderEventEntity event = createdEvent();
+        when(orderEventRepository.findAllByOrderByCreatedAtAscIdAsc(any(Limit.class)))
+                .thenReturn(Collections.nCopies(500, event), List.of(event));
+
+        service.publishOrderEvents();
+
+        verify(orderEventPublisher, times(501)).publish(any(OrderCreatedEvent.class));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void shouldKeepEarlierBatchesCommittedWhenPublishingFails() {
+        OrderEventEntity published = createdEvent();
+        OrderEventEntity failing = createdEvent();
+        when(orderEventRepository.findAllByOrderByCreatedAtAscIdAsc(any(Limit.class)))
+                .thenReturn(Collections.nCopies(500, published), List.of(failing));
+        doThrow(new IllegalStateException("broker down"))
+                .when(orderEventPublisher)
+                .publish(
+                        argThat((OrderCreatedEvent event) -> event.orderNumber().equals(failing.getOrderNumber())));
+
+        assertThatThrownBy(service::publishOrderEvents).isInstanceOf(IllegalStateException.class);
+
+        verify(orderEventRepository, times(500)).delete(published);
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    private OrderEventEntity createdEvent() {
+        OrderEntity order = OrderMapper.convertToEntity(TestDataFactory.createValidOrderRequest());
+        return service.toEntity(OrderEventMapper.buildOrderCreatedEvent(order));
+    }
+}
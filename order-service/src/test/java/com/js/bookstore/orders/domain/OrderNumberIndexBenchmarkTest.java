@@ -0,0 +1,97 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compares insert throughput and unique index size of random UUIDv4 text order numbers, random UUIDv4
+ * stored as native uuid and UUIDv7 stored as native uuid, so that the effect of the column type and
+ * of time ordering can be told apart. Run with
+ * {@code ./mvnw test -Dtest=OrderNumberIndexBenchmarkTest -Dbenchmark=true -Dbenchmark.orders=50000000}.
+ */
+@JdbcTest(
+        properties = {
+            "spring.test.database.replace=none",
+            "spring.datasource.url=jdbc:tc:postgresql:16-alpine:///db?reWriteBatchedInserts=true",
+        })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderNumberIndexBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(OrderNumberIndexBenchmarkTest.class);
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 1_000_000);
+    private static final int BATCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareRandomTextAndTimeOrderedUuidOrderNumbers() {
+        Result text = insert(
+                "random_text",
+                "text",
+                (ps, i) -> ps.setString(1, UUID.randomUUID().toString()));
+        Result randomUuid = insert("random_uuid", "uuid", (ps, i) -> ps.setObject(1, UUID.randomUUID()));
+        Result timeOrderedUuid = insert(
+                "time_ordered_uuid", "uuid", (ps, i) -> ps.setObject(1, OrderNumbers.next(System.currentTimeMillis())));
+
+        log.info("Inserted {} order numbers", ORDERS);
+        log.info("  uuidv4 text: {} rows/s, index {} MB", text.rowsPerSecond(), text.indexMegabytes());
+        log.info("  uuidv4 uuid: {} rows/s, index {} MB", randomUuid.rowsPerSecond(), randomUuid.indexMegabytes());
+        log.info(
+                "  uuidv7 uuid: {} rows/s, index {} MB",
+                timeOrderedUuid.rowsPerSecond(),
+                timeOrderedUuid.indexMegabytes());
+
+        // native uuid halves the key size; time ordering keeps inserts on the rightmost leaf pages,
+        // which are split nearly full instead of half full
+        assertThat(randomUuid.indexMegabytes()).isLessThan(text.indexMegabytes());
+        assertThat(timeOrderedUuid.indexMegabytes()).isLessThan(randomUuid.indexMegabytes());
+    }
+
+    private Result insert(String name, String columnType, Binder binder) {
+        String table = "order_numbers_" + name;
+        jdbcTemplate.execute("drop table if exists " + table);
+        jdbcTemplate.execute("create table " + table + " (order_number " + columnType + " not null unique)");
+
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < ORDERS; inserted += BATCH_SIZE) {
+            int batch = Math.min(BATCH_SIZE, ORDERS - inserted);
+            jdbcTemplate.batchUpdate(
+                    "insert into " + table + " (order_number) values (?)", new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            binder.bind(ps, i);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch;
+                        }
+                    });
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+
+        Long indexBytes = jdbcTemplate.queryForObject("select pg_indexes_size(?::regclass)", Long.class, table);
+        return new Result(ORDERS * 1000L / elapsedMillis, indexBytes / (1024 * 1024));
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    private record Result(long rowsPerSecond, long indexMegabytes) {}
+}
@@ -0,0 +1,34 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class OrderNumbersTest {
+
+    @Test
+    void shouldGenerateVersion7Uuids() {
+        UUID orderNumber = UUID.fromString(OrderNumbers.next());
+
+        assertThat(orderNumber.version()).isEqualTo(7);
+        assertThat(orderNumber.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldOrderByCreationTime() {
+        long now = System.currentTimeMillis();
+
+        UUID earlier = OrderNumbers.next(now);
+        UUID later = OrderNumbers.next(now + 1);
+
+        assertThat(earlier.getMostSignificantBits() >>> 16).isEqualTo(now);
+        assertThat(earlier.toString()).isLessThan(later.toString());
+    }
+
+    @Test
+    void shouldRejectNonUuidOrderNumbers() {
+        assertThat(OrderNumbers.isValid(OrderNumbers.next())).isTrue();
+        assertThat(OrderNumbers.isValid("order-123")).isFalse();
+    }
+}
@@ -0,0 +1,320 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.js.bookstore.orders.AbstractIT;
+import com.js.bookstore.orders.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@TestPropertySource(
+        properties = {
+            "orders.new-orders-job.cron=-",
+            "orders.process-new-orders-on-commit=false",
+            "orders.publish-order-events-job-cron=-",
+            "orders.new-orders-chunk-size=50",
+            "orders.pipeline-load-parallelism=4",
+            "orders.pipeline-decide-parallelism=2",
+            "orders.pipeline-persist-parallelism=4",
+        })
+class OrderProcessingTests extends AbstractIT {
+    private static final int ORDERS = 1000;
+
+    @Autowired
+    private OrderProcessingPipeline pipeline;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventService orderEventService;
+
+    @Autowired
+    private DeliveryRules deliveryRules;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void createNewOrders() {
+        jdbcTemplate.update("truncate table orders cascade");
+        jdbcTemplate.update(
+                """
+                insert into orders (order_number, username, customer_name, customer_email, customer_phone,
+                                    delivery_address_line1, delivery_address_city, delivery_address_state,
+                                    delivery_address_zip_code, delivery_address_country, status)
+                select gen_random_uuid(), 'jagdish', 'Customer ' || i, 'customer' || i || '@gmail.com', '999999999',
+                       'HNO ' || i, 'Noida', 'UP', '201309', case when i % 3 = 0 then 'Japan' else 'India' end, 'NEW'
+                from generate_series(1, ?) i
+                """,
+                ORDERS);
+    }
+
+    @Test
+    void shouldProcessEveryOrderExactlyOnceWithConcurrentPipelines() {
+        // a second pipeline claiming from the same table stands in for another replica
+        OrderProcessingPipeline replica = new OrderProcessingPipeline(
+                orderRepository,
+                orderEventService,
+                deliveryRules,
+                transactionManager,
+                properties,
+                new SimpleMeterRegistry());
+        replica.start();
+        try {
+            pipeline.signal();
+            replica.signal();
+
+            await().atMost(Duration.ofSeconds(60)).untilAsserted(() -> assertThat(jdbcTemplate.queryForObject(
+                            "select count(*) from orders where status in ('NEW', 'IN_PROCESS')", Integer.class))
+                    .isZero());
+        } finally {
+            replica.stop();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from order_events", Integer.class))
+                .isEqualTo(ORDERS);
+        assertThat(jdbcTemplate.queryForObject("select count(distinct order_number) from order_events", Integer.class))
+                .isEqualTo(ORDERS);
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from orders where claimed_by is not null", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void shouldSkipOrdersChangedConcurrentlyWithoutWritingTheirEvents() {
+        String changed =
+                jdbcTemplate.queryForObject("select order_number::text from orders order by id limit 1", String.class);
+        DeliveryRules cancellingRules = new DeliveryRules(properties, resourceLoader, objectMapper) {
+            @Override
+            boolean canBeDelivered(OrderEntity order) {
+                if (order.getOrderNumber().equals(changed)) {
+                    // stands in for another writer that changes the order after it was claimed
+                    jdbcTemplate.update(
+                            """
+                            update orders set status = 'CANCELLED', claimed_by = null, claimed_at = null
+                            where order_number = ?::uuid
+                            """,
+                            changed);
+                }
+                return super.canBeDelivered(order);
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderProcessingPipeline pipeline = new OrderProcessingPipeline(
+                orderRepository, orderEventService, cancellingRules, transactionManager, properties, meterRegistry);
+        pipeline.start();
+        try {
+            pipeline.signal();
+
+            await().atMost(Duration.ofSeconds(60)).untilAsserted(() -> assertThat(jdbcTemplate.queryForObject(
+                            "select count(*) from orders where status in ('NEW', 'IN_PROCESS')", Integer.class))
+                    .isZero());
+        } finally {
+            pipeline.stop();
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                        "select status from orders where order_number = ?::uuid", String.class, changed))
+                .isEqualTo("CANCELLED");
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from order_events where order_number = ?::uuid", Integer.class, changed))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from order_events", Integer.class))
+                .isEqualTo(ORDERS - 1);
+        assertThat(statementRows(meterRegistry, "update")).isEqualTo(ORDERS - 1);
+        assertThat(statementRows(meterRegistry, "insert")).isEqualTo(ORDERS - 1);
+    }
+
+    @Test
+    void shouldMoveOrdersThatCannotBePersistedToError() {
+        String poisoned =
+                jdbcTemplate.queryForObject("select order_number::text from orders order by id limit 1", String.class);
+        // only the ORDER_PROCESSING_FAILED event of the poisoned order can be written
+        jdbcTemplate.execute(
+                """
+                create function reject_order_events() returns trigger as $$
+                begin
+                    if new.order_number = '%s'::uuid and new.event_type <> 'ORDER_PROCESSING_FAILED' then
+                        raise exception 'rejected';
+                    end if;
+                    return new;
+                end;
+                $$ language plpgsql
+                """
+                        .formatted(poisoned));
+        jdbcTemplate.execute(
+                "create trigger reject_order_events before insert on order_events for each row execute function reject_order_events()");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderProcessingPipeline pipeline = new OrderProcessingPipeline(
+                orderRepository, orderEventService, deliveryRules, transactionManager, properties, meterRegistry);
+        pipeline.start();
+        try {
+            pipeline.signal();
+
+            await().atMost(Duration.ofSeconds(60)).untilAsserted(() -> assertThat(jdbcTemplate.queryForObject(
+                            "select count(*) from orders where status in ('NEW', 'IN_PROCESS')", Integer.class))
+                    .isZero());
+        } finally {
+            pipeline.stop();
+            jdbcTemplate.execute("drop trigger reject_order_events on order_events");
+            jdbcTemplate.execute("drop function reject_order_events()");
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                        "select status from orders where order_number = ?::uuid", String.class, poisoned))
+                .isEqualTo("ERROR");
+        assertThat(jdbcTemplate.queryForObject(
+                        "select event_type from order_events where order_number = ?::uuid", String.class, poisoned))
+                .isEqualTo("ORDER_PROCESSING_FAILED");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from order_events", Integer.class))
+                .isEqualTo(ORDERS);
+        assertThat(meterRegistry.find("orders.processing.orders").counters().stream()
+                        .mapToDouble(Counter::count)
+                        .sum())
+                .isEqualTo(ORDERS);
+    }
+
+    @Test
+    void shouldMoveOrdersThatCannotBeLoadedToError() {
+        long poisoned = jdbcTemplate.queryForObject("select id from orders order by id limit 1", Long.class);
+        OrderRepository failingRepository = mock(OrderRepository.class, AdditionalAnswers.delegatesTo(orderRepository));
+        doThrow(new IllegalStateException("unreadable order"))
+                .when(failingRepository)
+                .findWithItemsByIdIn(argThat(ids -> ids.contains(poisoned)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderProcessingPipeline pipeline = new OrderProcessingPipeline(
+                failingRepository, orderEventService, deliveryRules, transactionManager, properties, meterRegistry);
+        pipeline.start();
+        try {
+            pipeline.signal();
+
+            await().atMost(Duration.ofSeconds(60)).untilAsserted(() -> assertThat(jdbcTemplate.queryForObject(
+                            "select count(*) from orders where status in ('NEW', 'IN_PROCESS')", Integer.class))
+                    .isZero());
+        } finally {
+            pipeline.stop();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("select status from orders where id = ?", String.class, poisoned))
+                .isEqualTo("ERROR");
+        // the rest of the poisoned order's chunk is processed normally
+        assertThat(jdbcTemplate.queryForObject("select count(*) from order_events", Integer.class))
+                .isEqualTo(ORDERS - 1);
+        assertThat(meterRegistry.find("orders.processing.orders").counters().stream()
+                        .mapToDouble(Counter::count)
+                        .sum())
+                .isEqualTo(ORDERS);
+    }
+
+    @Test
+    void shouldReleaseExpiredClaims() {
+        UUID claim = UUID.randomUUID();
+        jdbcTemplate.update(
+                """
+                update orders set status = 'IN_PROCESS', claimed_by = ?,
+                                  claimed_at = case when id % 2 = 0 then now() - interval '1 hour' else now() end
+                where id in (select id from orders order by id limit 100)
+                """,
+                claim);
+
+        assertThat(pipeline.releaseExpiredClaims()).isEqualTo(50);
+
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from orders where status = 'IN_PROCESS' and claimed_by = ?",
+                        Integer.class,
+                        claim))
+                .isEqualTo(50);
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from orders where status = 'NEW' and claimed_by is null", Integer.class))
+                .isEqualTo(ORDERS - 50);
+    }
+
+    @Test
+    void shouldReleaseQueuedClaimsOnStop() {
+        // decide blocks until stop() interrupts it, so claimed chunks pile up in the queues
+        DeliveryRules blockingRules = new DeliveryRules(properties, resourceLoader, objectMapper) {
+            @Override
+            boolean canBeDelivered(OrderEntity order) {
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("interrupted");
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderProcessingPipeline pipeline = new OrderProcessingPipeline(
+                orderRepository, orderEventService, blockingRules, transactionManager, properties, meterRegistry);
+        int chunkSize = properties.newOrdersChunkSize();
+        int capacity = properties.pipelineQueueCapacity();
+        // chunks held by the claim thread, every load and decide thread, and waiting in the queues
+        int inFlight = (1 + properties.pipelineLoadParallelism() + properties.pipelineDecideParallelism()) * chunkSize;
+        int queued = 2 * capacity * chunkSize;
+        pipeline.start();
+        try {
+            pipeline.signal();
+
+            await().atMost(Duration.ofSeconds(30)).untilAsserted(() -> {
+                assertThat(queueDepth(meterRegistry, "load")).isEqualTo(capacity);
+                assertThat(queueDepth(meterRegistry, "decide")).isEqualTo(capacity);
+                assertThat(jdbcTemplate.queryForObject(
+                                "select count(*) from orders where status = 'IN_PROCESS'", Integer.class))
+                        .isEqualTo(inFlight + queued);
+            });
+        } finally {
+            pipeline.stop();
+        }
+
+        // claims of chunks that were only held by a thread expire after the claim timeout
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from orders where status = 'IN_PROCESS'", Integer.class))
+                .isEqualTo(inFlight);
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from orders where status = 'NEW' and claimed_by is null", Integer.class))
+                .isEqualTo(ORDERS - inFlight);
+    }
+
+    private static double queueDepth(SimpleMeterRegistry meterRegistry, String stage) {
+        return meterRegistry
+                .get("orders.pipeline.queue.depth")
+                .tag("stage", stage)
+                .gauge()
+                .value();
+    }
+
+    private static double statementRows(SimpleMeterRegistry meterRegistry, String statement) {
+        return meterRegistry.find("orders.processing.statement.rows").tag("statement", statement).summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+}
@@ -0,0 +1,132 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.js.bookstore.orders.ApplicationProperties;
+import com.js.bookstore.orders.TestApplicationProperties;
+import com.js.bookstore.orders.clients.catalog.Product;
+import com.js.bookstore.orders.clients.catalog.ProductNearCache;
+import com.js.bookstore.orders.domain.models.CreateOrderRequest;
+import com.js.bookstore.orders.domain.models.OrderItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class OrderValidatorTest {
+    private final ProductNearCache productCache = mock(ProductNearCache.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderValidator validator =
+            new OrderValidator(productCache, properties(2, Duration.ofSeconds(2)), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        validator.shutdown();
+    }
+
+    @Test
+    void shouldValidateItemsInConcurrentBatches() {
+        when(productCache.getProductsByCodes(anySet())).thenAnswer(invocation -> {
+            Set<String> codes = invocation.getArgument(0);
+            return codes.stream().map(OrderValidatorTest::product).toList();
+        });
+
+        assertThatNoException().isThrownBy(() -> validator.validate(request(5)));
+
+        verify(productCache, times(3)).getProductsByCodes(anySet());
+        assertThat(meterRegistry.timer("orders.validation.lookup").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("orders.validation", "outcome", "valid").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectOrderWhenProductDoesNotExist() {
+        when(productCache.getProductsByCodes(anySet())).thenReturn(List.of());
+
+        assertThatThrownBy(() -> validator.validate(request(1)))
+                .isInstanceOf(InvalidOrderException.class)
+                .hasMessage("Invalid Product code: P1");
+    }
+
+    @Test
+    void shouldRejectOrderWhenPriceDoesNotMatch() {
+        when(productCache.getProductsByCodes(anySet()))
+                .thenReturn(List.of(new Product("P1", "Product P1", null, null, new BigDecimal("99.00"))));
+
+        assertThatThrownBy(() -> validator.validate(request(1)))
+                .isInstanceOf(InvalidOrderException.class)
+                .hasMessage("Product price not matching");
+        verify(productCache).refresh(Set.of("P1"));
+    }
+
+    @Test
+    void shouldRefetchProductBeforeRejectingOnStalePrice() {
+        when(productCache.getProductsByCodes(anySet()))
+                .thenReturn(List.of(new Product("P1", "Product P1", null, null, new BigDecimal("99.00"))));
+        when(productCache.refresh(Set.of("P1"))).thenReturn(List.of(product("P1")));
+
+        assertThatNoException().isThrownBy(() -> validator.validate(request(1)));
+    }
+
+    @Test
+    void shouldRefetchStalePricesOnceForManyOrders() {
+        when(productCache.getProductsByCodes(anySet()))
+                .thenReturn(List.of(new Product("P1", "Product P1", null, null, new BigDecimal("99.00"))));
+        when(productCache.refresh(Set.of("P1"))).thenReturn(List.of(product("P1")));
+        List<CreateOrderRequest> requests = List.of(request(1), request(1), request(1));
+
+        Map<String, Product> products = validator.findProducts(requests);
+
+        assertThat(requests).allSatisfy(request -> assertThat(validator.findViolation(request, products))
+                .isEmpty());
+        verify(productCache, times(1)).refresh(anySet());
+    }
+
+    @Test
+    void shouldRejectOrderWhenValidationExceedsDeadline() {
+        OrderValidator slowValidator =
+                new OrderValidator(productCache, properties(100, Duration.ofMillis(100)), meterRegistry);
+        when(productCache.getProductsByCodes(anySet())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return List.of();
+        });
+
+        try {
+            assertThatThrownBy(() -> slowValidator.validate(request(1)))
+                    .isInstanceOf(InvalidOrderException.class)
+                    .hasMessage("Order items could not be validated in time");
+            assertThat(meterRegistry.counter("orders.validation.timeouts").count())
+                    .isEqualTo(1);
+        } finally {
+            slowValidator.shutdown();
+        }
+    }
+
+    private static CreateOrderRequest request(int items) {
+        Set<OrderItem> orderItems = IntStream.rangeClosed(1, items)
+                .mapToObj(i -> new OrderItem("P" + i, "Product P" + i, new BigDecimal("10.00"), 1))
+                .collect(Collectors.toSet());
+        return new CreateOrderRequest(orderItems, null, null);
+    }
+
+    private static Product product(String code) {
+        return new Product(code, "Product " + code, null, null, new BigDecimal("10.00"));
+    }
+
+    private static ApplicationProperties properties(int batchSize, Duration timeout) {
+        return TestApplicationProperties.of(Map.of("validation-batch-size", batchSize, "validation-timeout", timeout));
+    }
+}
@@ -0,0 +1,234 @@
+package com.js.bookstore.orders.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Guards against repository queries that scan whole tables. Seeds a few million rows, records the
+ * SQL each repository method issues and asserts that the generic plan of every statement reaches
+ * the tables through indexes only. Run with {@code ./mvnw test -Dtest=QueryPlanTests -Dbenchmark=true};
+ * seed more rows with {@code -Dquery-plans.orders=5000000}.
+ */
+@DataJpaTest(
+        properties = {
+            "spring.test.database.replace=none",
+            "spring.datasource.url=jdbc:tc:postgresql:16-alpine:///db",
+        })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class QueryPlanTests {
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanTests.class);
+    private static final int ORDERS = Integer.getInteger("query-plans.orders", 1_000_000);
+    private static final int USERS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        jdbcTemplate.update(
+                """
+                insert into orders (order_number, username, customer_name, customer_email, customer_phone,
+                                    delivery_address_line1, delivery_address_city, delivery_address_state,
+                                    delivery_address_zip_code, delivery_address_country, status, created_at)
+                select gen_random_uuid(), 'user-' || (i % ?), 'Customer ' || i, 'customer' || i || '@gmail.com',
+                       '999999999', 'HNO ' || i, 'Noida', 'UP', '201309', 'India',
+                       case when i % 1000 = 0 then 'NEW' when i % 50 = 0 then 'CANCELLED' else 'DELIVERED' end,
+                       now() - make_interval(secs => ? - i)
+                from generate_series(1, ?) i
+                """,
+                USERS, ORDERS, ORDERS);
+        jdbcTemplate.update(
+                """
+                insert into order_items (code, name, price, quantity, order_id)
+                select 'P100', 'The Hunger Games', 34.0, 1, id from orders
+                """);
+        jdbcTemplate.update(
+                """
+                insert into order_events (order_number, event_id, event_type, payload, created_at)
+                select order_number, gen_random_uuid()::text, 'ORDER_DELIVERED', '{}', created_at
+                from orders where status = 'DELIVERED' and id % 20 = 0
+                """);
+        jdbcTemplate.execute("vacuum analyze orders, order_items, order_events");
+        log.info("Seeded {} orders in {} ms", ORDERS, (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    @BeforeEach
+    void clearStatements() {
+        statementRecorder.statements.clear();
+    }
+
+    @Test
+    void claimNewOrders() throws Exception {
+        orderRepository.claimNewOrders(UUID.randomUUID(), 500);
+        assertIndexScansOnly();
+    }
+
+    @Test
+    void findWithItemsByIdIn() throws Exception {
+        orderRepository.findWithItemsByIdIn(orderIds());
+        assertIndexScansOnly();
+    }
+
+    @Test
+    void findByOrderNumber() throws Exception {
+        orderRepository.findByOrderNumber(anyOrderNumber());
+        assertIndexScansOnly();
+    }
+
+    @Test
+    void transitionClaimedOrders() throws Exception {
+        orderRepository.transitionClaimedOrders(orderIds().toArray(Long[]::new), "DELIVERED", UUID.randomUUID());
+        assertIndexScansOnly();
+    }
+
+    @Test
+    void releaseClaims() throws Exception {
+        orderRepository.releaseClaims(new UUID[] {UUID.randomUUID()});
+        assertIndexScansOnly();
+    }
+
+    @Test
+    void releaseClaimsBefore() throws Exception {
+        orderRepository.releaseClaimsBefore(LocalDateTime.now().minusMinutes(5));
+        assertIndexScansOnly();
+    }
+
+    @Test
+    void findByUserName() throws Exception {
+        orderRepository.findByUserName("user-42");
+        assertIndexScansOnly();
+    }
+
+    @Test
+    void findByUserNameAndOrderNumber() throws Exception {
+        orderRepository.findByUserNameAndOrderNumber("user-42", anyOrderNumber());
+        assertIndexScansOnly();
+    }
+
+    @Test
+    void findOldestOrderEvents() throws Exception {
+        orderEventRepository.findAllByOrderByCreatedAtAscIdAsc(Limit.of(500));
+        assertIndexScansOnly();
+    }
+
+    private List<Long> orderIds() {
+        return jdbcTemplate.queryForList("select id from orders where status = 'NEW' limit 10", Long.class);
+    }
+
+    private String anyOrderNumber() {
+        return jdbcTemplate.queryForObject("select order_number::text from orders limit 1", String.class);
+    }
+
+    private void assertIndexScansOnly() throws Exception {
+        List<String> statements = List.copyOf(statementRecorder.statements);
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            List<String> scans = new ArrayList<>();
+            collectScans(objectMapper.readTree(explain(sql)).path(0).path("Plan"), scans);
+            log.info("{} -> {}", sql, scans);
+            assertThat(scans).as(sql).isNotEmpty().noneMatch(scan -> scan.startsWith("Seq Scan"));
+        }
+    }
+
+    /**
+     * Explains the generic plan, i.e. the plan chosen without looking at parameter values, which is
+     * what a prepared statement ends up using once it has been executed a few times.
+     */
+    private String explain(String sql) {
+        StringBuilder query = new StringBuilder();
+        int parameters = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                query.append('$').append(++parameters);
+            } else {
+                query.append(c);
+            }
+        }
+        String arguments =
+                parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "null")) + ")";
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set local plan_cache_mode = force_generic_plan");
+                statement.execute("prepare query_plan as " + query);
+                try (ResultSet plan = statement.executeQuery("explain (format json) execute query_plan" + arguments)) {
+                    plan.next();
+                    return plan.getString(1);
+                } finally {
+                    statement.execute("deallocate query_plan");
+                }
+            }
+        });
+    }
+
+    private static void collectScans(JsonNode plan, List<String> scans) {
+        String nodeType = plan.path("Node Type").asText();
+        if (nodeType.endsWith("Scan")) {
+            scans.add(nodeType + " on " + plan.path("Relation Name").asText());
+        }
+        plan.path("Plans").forEach(child -> collectScans(child, scans));
+    }
+
+    static class StatementRecorder implements StatementInspector {
+        final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementRecorderConfig {
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementRecorderCustomizer(StatementRecorder statementRecorder) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementRecorder);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.js.bookstore.orders.jobs;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.js.bookstore.orders.AbstractIT;
+import com.js.bookstore.orders.testdata.TestDataFactory;
+import io.restassured.http.ContentType;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * With the sweeper disabled, new orders can only be processed because their commit signalled the
+ * pipeline: in-process through the AFTER_COMMIT event, or from another replica through the Postgres
+ * 'new_orders' notification.
+ */
+@TestPropertySource(
+        properties = {
+            "orders.new-orders-job.cron=-",
+            "orders.process-new-orders-on-commit=true",
+        })
+class NewOrdersSignalTests extends AbstractIT {
+    // well below the 60 seconds between sweeps in production
+    private static final Duration SIGNAL_LATENCY = Duration.ofSeconds(10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldProcessOrderCreatedThroughTheApiOnCommit() {
+        mockGetProductByCode("P100", "Product 1", new BigDecimal("25.50"));
+        var payload = TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50"));
+
+        String orderNumber = given().contentType(ContentType.JSON)
+                .header("Authorization", "Bearer " + getToken())
+                .body(payload)
+                .when()
+                .post("/api/orders")
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .path("orderNumber");
+
+        awaitDelivered(orderNumber);
+    }
+
+    @Test
+    void shouldProcessOrderCommittedByAnotherReplicaOnNotification() {
+        // a plain insert publishes no application event, so only the trigger's pg_notify can signal
+        String orderNumber = UUID.randomUUID().toString();
+        jdbcTemplate.update(
+                """
+                insert into orders (order_number, username, customer_name, customer_email, customer_phone,
+                                    delivery_address_line1, delivery_address_city, delivery_address_state,
+                                    delivery_address_zip_code, delivery_address_country, status)
+                values (?::uuid, 'jagdish', 'Customer', 'customer@gmail.com', '999999999',
+                        'HNO 123', 'Noida', 'UP', '201309', 'India', 'NEW')
+                """,
+                orderNumber);
+
+        awaitDelivered(orderNumber);
+    }
+
+    private void awaitDelivered(String orderNumber) {
+        await().atMost(SIGNAL_LATENCY).untilAsserted(() -> assertThat(jdbcTemplate.queryForObject(
+                        "select status from orders where order_number = ?::uuid", String.class, orderNumber))
+                .isEqualTo("DELIVERED"));
+    }
+}
@@ -26,6 +26,18 @@ public class TestDataFactory {
                 .create();
     }
 
+    public static CreateOrderRequest createValidOrderRequest(String code, BigDecimal price) {
+        return createValidOrderRequest(code, price, 1);
+    }
+
+    public static CreateOrderRequest createValidOrderRequest(String code, BigDecimal price, int quantity) {
+        return Instancio.of(CreateOrderRequest.class)
+                .generate(field(Customer::email), gen -> gen.text().pattern("#a#a#a#a#a#a@mail.com"))
+                .set(field(CreateOrderRequest::items), Set.of(new OrderItem(code, "Product 1", price, quantity)))
+                .generate(field(Address::country), gen -> gen.oneOf(VALID_COUNTRIES))
+                .create();
+    }
+
     public static CreateOrderRequest createOrderRequestWithInvalidCustomer() {
         return Instancio.of(CreateOrderRequest.class)
                 .generate(field(Customer::email), gen -> gen.text().pattern("#c#c#c#c#d#d@mail.com"))
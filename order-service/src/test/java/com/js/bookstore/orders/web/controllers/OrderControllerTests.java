@@ -6,20 +6,35 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 
 import com.js.bookstore.orders.AbstractIT;
+import com.js.bookstore.orders.domain.models.CreateOrderRequest;
+import com.js.bookstore.orders.domain.models.OrderItem;
 import com.js.bookstore.orders.domain.models.OrderSummary;
 import com.js.bookstore.orders.testdata.TestDataFactory;
 import io.restassured.common.mapper.TypeRef;
 import io.restassured.http.ContentType;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
 @Sql("/test-orders.sql")
 class OrderControllerTests extends AbstractIT {
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @Nested
     class CreateOrderTests {
         @Test
@@ -62,6 +77,156 @@ class OrderControllerTests extends AbstractIT {
                     .body("orderNumber", notNullValue());
         }
 
+        @Test
+        void shouldReplayOrderForRepeatedIdempotencyKey() {
+            mockGetProductByCode("P100", "Product 1", new BigDecimal("25.50"));
+            var payload = TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50"));
+            String idempotencyKey = UUID.randomUUID().toString();
+
+            String orderNumber = given().contentType(ContentType.JSON)
+                    .header("Authorization", "Bearer " + getToken())
+                    .header("Idempotency-Key", idempotencyKey)
+                    .body(payload)
+                    .when()
+                    .post("/api/orders")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .extract()
+                    .path("orderNumber");
+
+            given().contentType(ContentType.JSON)
+                    .header("Authorization", "Bearer " + getToken())
+                    .header("Idempotency-Key", idempotencyKey)
+                    .body(payload)
+                    .when()
+                    .post("/api/orders")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .body("orderNumber", is(orderNumber));
+        }
+
+        @Test
+        void shouldReplayOrderForRepeatedIdempotencyKeyWithEquivalentPrice() {
+            mockGetProductByCode("P100", "Product 1", new BigDecimal("25.50"));
+            var payload = TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50"));
+            var samePayload = new CreateOrderRequest(
+                    Set.of(new OrderItem("P100", "Product 1", new BigDecimal("25.5"), 1)),
+                    payload.customer(),
+                    payload.deliveryAddress());
+            String idempotencyKey = UUID.randomUUID().toString();
+
+            String orderNumber = given().contentType(ContentType.JSON)
+                    .header("Authorization", "Bearer " + getToken())
+                    .header("Idempotency-Key", idempotencyKey)
+                    .body(payload)
+                    .when()
+                    .post("/api/orders")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .extract()
+                    .path("orderNumber");
+
+            given().contentType(ContentType.JSON)
+                    .header("Authorization", "Bearer " + getToken())
+                    .header("Idempotency-Key", idempotencyKey)
+                    .body(samePayload)
+                    .when()
+                    .post("/api/orders")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value())
+                    .body("orderNumber", is(orderNumber));
+        }
+
+        @Test
+        void shouldCreateOneOrderForConcurrentRequestsWithSameIdempotencyKey() throws Exception {
+            mockGetProductByCode("P100", "Product 1", new BigDecimal("25.50"));
+            var payload = TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50"));
+            String idempotencyKey = UUID.randomUUID().toString();
+            String token = getToken();
+            int requests = 8;
+            long ordersBefore = countOrders();
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> responses = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(requests)) {
+                for (int i = 0; i < requests; i++) {
+                    responses.add(executor.submit(() -> {
+                        start.await();
+                        return given().contentType(ContentType.JSON)
+                                .header("Authorization", "Bearer " + token)
+                                .header("Idempotency-Key", idempotencyKey)
+                                .body(payload)
+                                .when()
+                                .post("/api/orders")
+                                .then()
+                                .statusCode(HttpStatus.CREATED.value())
+                                .extract()
+                                .path("orderNumber");
+                    }));
+                }
+                start.countDown();
+            }
+
+            Set<String> orderNumbers = new HashSet<>();
+            for (Future<String> response : responses) {
+                orderNumbers.add(response.get());
+            }
+            assertThat(orderNumbers).hasSize(1).doesNotContainNull();
+            assertThat(countOrders()).isEqualTo(ordersBefore + 1);
+        }
+
+        private long countOrders() {
+            return jdbcTemplate.queryForObject("select count(*) from orders", Long.class);
+        }
+
+        @Test
+        void shouldRejectIdempotencyKeyReusedForDifferentRequest() {
+            mockGetProductByCode("P100", "Product 1", new BigDecimal("25.50"));
+            String idempotencyKey = UUID.randomUUID().toString();
+
+            given().contentType(ContentType.JSON)
+                    .header("Authorization", "Bearer " + getToken())
+                    .header("Idempotency-Key", idempotencyKey)
+                    .body(TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50")))
+                    .when()
+                    .post("/api/orders")
+                    .then()
+                    .statusCode(HttpStatus.CREATED.value());
+
+            given().contentType(ContentType.JSON)
+                    .header("Authorization", "Bearer " + getToken())
+                    .header("Idempotency-Key", idempotencyKey)
+                    .body(TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50"), 2))
+                    .when()
+                    .post("/api/orders")
+                    .then()
+                    .statusCode(HttpStatus.UNPROCESSABLE_ENTITY.value());
+        }
+
+        @Test
+        void shouldCreateOrdersInBulkWithPerOrderResults() {
+            mockGetProductByCode("P100", "Product 1", new BigDecimal("25.50"));
+            var orders = List.of(
+                    TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50")),
+                    TestDataFactory.createValidOrderRequest("ABCD", new BigDecimal("25.50")),
+                    TestDataFactory.createOrderRequestWithInvalidCustomer(),
+                    TestDataFactory.createValidOrderRequest("P100", new BigDecimal("25.50"), 3));
+
+            given().contentType(ContentType.JSON)
+                    .header("Authorization", "Bearer " + getToken())
+                    .body(orders)
+                    .when()
+                    .post("/api/orders/bulk")
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("created", is(2))
+                    .body("rejected", is(2))
+                    .body("results[0].orderNumber", notNullValue())
+                    .body("results[1].error", is("Invalid Product code: ABCD"))
+                    .body("results[2].error", notNullValue())
+                    .body("results[3].orderNumber", notNullValue());
+        }
+
         @Test
         void shouldReturnBadRequestWhenMandatoryDataIsMissing() {
             var payload = TestDataFactory.createOrderRequestWithInvalidCustomer();
@@ -95,7 +260,7 @@ class OrderControllerTests extends AbstractIT {
 
     @Nested
     class GetOrderByOrderNumberTests {
-        String orderNumber = "order-123";
+        String orderNumber = "018f0c3e-6d2a-7b4c-9e1f-3a5b7c9d1e2f";
 
         @Test
         void shouldGetOrderSuccessfully() {
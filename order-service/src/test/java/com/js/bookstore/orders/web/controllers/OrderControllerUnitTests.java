@@ -17,6 +17,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.js.bookstore.orders.WithMockOAuth2User;
+import com.js.bookstore.orders.domain.BulkOrderService;
 import com.js.bookstore.orders.domain.OrderService;
 import com.js.bookstore.orders.domain.SecurityService;
 import com.js.bookstore.orders.domain.models.*;
@@ -42,6 +43,9 @@ class OrderControllerUnitTests {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private BulkOrderService bulkOrderService;
+
     @MockBean
     private SecurityService securityService;
 
@@ -62,7 +66,7 @@ class OrderControllerUnitTests {
     @MethodSource("createOrderRequestProvider")
     @WithMockUser
     void shouldReturnBadRequestWhenOrderPayloadIsInvalid(CreateOrderRequest request) throws Exception {
-        given(orderService.createOrder(eq("Jagdish"), any(CreateOrderRequest.class)))
+        given(orderService.createOrder(eq("Jagdish"), any(CreateOrderRequest.class), any()))
                 .willReturn(null);
 
         mockMvc.perform(post("/api/orders")